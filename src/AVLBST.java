@@ -0,0 +1,89 @@
+import net.datastructures.*;
+import java.util.Comparator;
+
+// AVL balanced binary search tree; each node caches the height of its subtree
+public class AVLBST<E> extends MyBST<E> {
+
+	public AVLBST(Comparator<E> c) { super(c); }	// compare by non-natural ordering
+	public AVLBST() { super(); }					// compare by natural ordering
+
+	// the aux field of a node holds the height of its subtree, counting
+	// the node itself (a leaf has 1, a missing child has 0)
+	private int heightOf(Node<E> n) { return (n == null) ? 0 : getAux(n); }
+
+	private void recomputeHeight(Node<E> n){
+		setAux(n, 1 + Math.max(heightOf(n.getLeft()), heightOf(n.getRight())));
+	}
+
+	private boolean isBalanced(Node<E> n){
+		return Math.abs(heightOf(n.getLeft()) - heightOf(n.getRight())) <= 1;
+	}
+
+	/**
+	 * Returns the height of the subtree rooted at p in O(1) time, using
+	 * the height cached in the node.
+	 * @param p: A valid Position within the tree
+	 * @return height of the subtree (0 for a leaf)
+	 */
+	@Override
+	public int height(Position<E> p) throws IllegalArgumentException {
+		return getAux(validate(p)) - 1;
+	}
+
+	/**
+	 * Returns the child of n with greater height. Ties are broken in favor
+	 * of the child aligned with n, so a single rotation suffices.
+	 * @param n: Node with at least one child
+	 * @return the taller child of n
+	 */
+	private Node<E> tallerChild(Node<E> n){
+		Node<E> left = n.getLeft();
+		Node<E> right = n.getRight();
+		if (heightOf(left) > heightOf(right)) return left;		// clear winner
+		if (heightOf(left) < heightOf(right)) return right;		// clear winner
+		// equal height children; break tie while matching parent's orientation
+		Node<E> parent = n.getParent();
+		if (parent == null) return left;						// choice is irrelevant
+		if (n == parent.getLeft()) return left;					// return aligned child
+		else return right;
+	}
+
+	/**
+	 * Restores the AVL balance property from n up toward the root,
+	 * stopping as soon as a subtree height is unchanged.
+	 * @param n: lowest node whose subtree may have changed
+	 */
+	private void rebalance(Node<E> n){
+		int oldHeight, newHeight;
+		do{
+			oldHeight = heightOf(n);				// not yet recalculated if internal
+			if (!isBalanced(n)){					// imbalance detected
+				// perform trinode restructuring, setting n to resulting root,
+				// and recompute new local heights after the restructuring
+				n = restructure(tallerChild(tallerChild(n)));
+				recomputeHeight(n.getLeft());
+				recomputeHeight(n.getRight());
+			}
+			recomputeHeight(n);
+			newHeight = heightOf(n);
+			n = n.getParent();
+		} while (oldHeight != newHeight && n != null);
+	}
+
+	// children of a bulk-loaded node are built first, so its height can be computed directly
+	@Override
+	protected void initLoadedNode(Node<E> n, int depth, int maxDepth){
+		recomputeHeight(n);
+	}
+
+	@Override
+	protected void rebalanceInsert(Node<E> n){
+		rebalance(n);
+	}
+
+	@Override
+	protected void rebalanceDelete(Node<E> removed, Node<E> child, Node<E> parent){
+		if (parent != null)
+			rebalance(parent);
+	}
+}
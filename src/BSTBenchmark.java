@@ -0,0 +1,113 @@
+import net.datastructures.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+// compares search depth and timings of MyBST, RedBlackBST, AVLBST and BPlusTree on the same key streams
+public class BSTBenchmark {
+
+	private static final int DEFAULT_KEYS = 20000;	// MyBST is quadratic on sorted input
+
+	/**
+	 * Builds each tree from keys, then looks every key up again.
+	 * Prints tree height, average search depth and elapsed times.
+	 * @param label: name of the tree being measured
+	 * @param tree: an empty tree
+	 * @param keys: key stream to be inserted and searched
+	 */
+	private static void run(String label, MyBST<Integer> tree, int[] keys){
+		long start = System.nanoTime();
+		for (int e : keys)
+			tree.add(tree.root(), e);
+		long built = System.nanoTime();
+
+		int found = 0;
+		for (int e : keys)
+			if (tree.findNode(tree.root(), e) != null)
+				found++;
+		long searched = System.nanoTime();
+
+		// walk the tree iteratively, so degenerate trees do not overflow the stack
+		long totalDepth = 0;
+		int maxDepth = 0;
+		Deque<Position<Integer>> nodes = new ArrayDeque<>();
+		Deque<Integer> depths = new ArrayDeque<>();
+		if (tree.root() != null){
+			nodes.push(tree.root());
+			depths.push(0);
+		}
+		while (!nodes.isEmpty()){
+			Position<Integer> p = nodes.pop();
+			int d = depths.pop();
+			totalDepth += d;
+			maxDepth = Math.max(maxDepth, d);
+			for (Position<Integer> c : tree.children(p)){
+				nodes.push(c);
+				depths.push(d + 1);
+			}
+		}
+
+		System.out.printf("  %-12s height %6d   avg depth %9.2f   build %6d ms   search %6d ms   (%d found)%n",
+				label, maxDepth, (double) totalDepth / Math.max(1, tree.size()),
+				(built - start) / 1000000, (searched - built) / 1000000, found);
+	}
+
+	/**
+	 * Same measurements for a B+ tree: every search descends one level per node,
+	 * so the number of levels plays the role of the search depth.
+	 * @param label: name of the tree being measured
+	 * @param tree: an empty tree
+	 * @param keys: key stream to be inserted and searched
+	 */
+	private static void runBPlus(String label, BPlusTree<Integer> tree, int[] keys){
+		long start = System.nanoTime();
+		for (int e : keys)
+			tree.add(e);
+		long built = System.nanoTime();
+
+		int found = 0;
+		for (int e : keys)
+			if (tree.contains(e))
+				found++;
+		long searched = System.nanoTime();
+
+		System.out.printf("  %-12s levels %6d   fanout %10d   build %6d ms   search %6d ms   (%d found)%n",
+				label, tree.levels(), tree.fanout(),
+				(built - start) / 1000000, (searched - built) / 1000000, found);
+	}
+
+	// runs all the trees on the same key stream
+	private static void compare(String stream, int[] keys){
+		System.out.println(stream + " keys (" + keys.length + "):");
+		run("MyBST", new MyBST<Integer>(), keys);
+		run("RedBlackBST", new RedBlackBST<Integer>(), keys);
+		run("AVLBST", new AVLBST<Integer>(), keys);
+		runBPlus("BPlusTree", new BPlusTree<Integer>(), keys);
+		System.out.println();
+	}
+
+	public static void main(String[] args){
+		int n = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_KEYS;
+		Random r = new Random(526);
+
+		int[] random = new int[n];
+		for (int i = 0; i < n; i++)
+			random[i] = r.nextInt(1000000);
+
+		int[] sorted = new int[n];
+		for (int i = 0; i < n; i++)
+			sorted[i] = i;
+
+		int[] nearlySorted = sorted.clone();		// sorted, with 1% of keys swapped
+		for (int i = 0; i < n / 100; i++){
+			int a = r.nextInt(n), b = r.nextInt(n);
+			int temp = nearlySorted[a];
+			nearlySorted[a] = nearlySorted[b];
+			nearlySorted[b] = temp;
+		}
+
+		compare("random", random);
+		compare("sorted", sorted);
+		compare("nearly sorted", nearlySorted);
+	}
+}
@@ -0,0 +1,228 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+// compact binary format for search trees. Only the elements are written, in increasing
+// order; the shape is not stored, because loading rebuilds a balanced tree in linear time.
+// Integer elements are stored as varint-coded gaps, usually one or two bytes each.
+public class BSTSerializer {
+
+	// header: magic, format version, element encoding, then the element count as a varint
+	private static final int MAGIC = 0x42535453;		// "BSTS"
+	private static final byte FORMAT_VERSION = 1;
+	private static final byte CODEC_ELEMENTS = 1;		// elements written by an ElementCodec
+	private static final byte INT_GAPS = 2;				// first int zigzag-coded, then gaps minus one
+
+	private BSTSerializer() { }
+
+	//---------------- writing ----------------
+
+	/**
+	 * Writes the elements of tree, in increasing order, using codec.
+	 * @param tree: tree to be written
+	 * @param codec: converts elements to bytes
+	 * @return a buffer holding the serialized tree, positioned at its start
+	 */
+	public static <E> ByteBuffer serialize(MyBST<E> tree, ElementCodec<E> codec){
+		ByteBuffer out = ByteBuffer.allocate(16 + 8 * tree.size());
+		out = header(out, CODEC_ELEMENTS, tree.size());
+		for (E e : tree){
+			int need = codec.encodedSize(e);
+			if (out.remaining() < need)
+				out = grow(out, need);
+			codec.encode(e, out);
+		}
+		out.flip();
+		return out;
+	}
+
+	/**
+	 * Writes the elements of an Integer tree as varint-coded gaps between consecutive elements.
+	 * @param tree: tree to be written
+	 * @return a buffer holding the serialized tree, positioned at its start
+	 */
+	public static ByteBuffer serializeInts(MyBST<Integer> tree){
+		int[] keys = new int[tree.size()];
+		int n = 0;
+		for (Integer e : tree)
+			keys[n++] = e;
+		return serializeInts(keys);
+	}
+
+	/**
+	 * Writes strictly increasing ints, such as IntBST.toArray(), as varint-coded gaps.
+	 * @param sorted: ints in strictly increasing order
+	 * @return a buffer holding the serialized keys, positioned at its start
+	 * @throws IllegalArgumentException if the ints are not strictly increasing
+	 */
+	public static ByteBuffer serializeInts(int[] sorted){
+		ByteBuffer head = header(ByteBuffer.allocate(16), INT_GAPS, sorted.length);
+		byte[] bytes = new byte[head.position() + 5 * sorted.length];	// 5 bytes bound any varint here
+		System.arraycopy(head.array(), 0, bytes, 0, head.position());
+		int pos = head.position();
+		if (sorted.length > 0)
+			pos = putVarint(bytes, pos, ((sorted[0] << 1) ^ (sorted[0] >> 31)) & 0xffffffffL);	// zigzag
+		for (int i = 1; i < sorted.length; i++){
+			if (sorted[i - 1] >= sorted[i])
+				throw new IllegalArgumentException("Keys are not strictly increasing at index " + i);
+			pos = putVarint(bytes, pos, (long) sorted[i] - sorted[i - 1] - 1);
+		}
+		return ByteBuffer.wrap(bytes, 0, pos);
+	}
+
+	/**
+	 * Writes a serialized tree, as returned by serialize or serializeInts, to file.
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(ByteBuffer serialized, Path file) throws IOException {
+		ByteBuffer b = serialized.duplicate();
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+			while (b.hasRemaining())
+				ch.write(b);
+		}
+	}
+
+	private static ByteBuffer header(ByteBuffer out, byte encoding, int count){
+		out.putInt(MAGIC).put(FORMAT_VERSION).put(encoding);
+		byte[] v = new byte[5];
+		out.put(v, 0, putVarint(v, 0, count));
+		return out;
+	}
+
+	private static ByteBuffer grow(ByteBuffer out, int need){
+		ByteBuffer bigger = ByteBuffer.allocate(Math.max(2 * out.capacity(), out.position() + need));
+		out.flip();
+		return bigger.put(out);
+	}
+
+	// writes v, which must be non-negative, 7 bits per byte, low bits first; returns the new position
+	private static int putVarint(byte[] b, int pos, long v){
+		while (v >= 0x80){
+			b[pos++] = (byte) (v | 0x80);
+			v >>>= 7;
+		}
+		b[pos++] = (byte) v;
+		return pos;
+	}
+
+	//---------------- reading ----------------
+
+	/**
+	 * Rebuilds a tree from serialized bytes, in time linear in the number of elements.
+	 * The bytes are read in place, so a memory-mapped file is not copied first.
+	 * @param in: buffer positioned at a tree written by serialize; its position is advanced
+	 * @param codec: converts bytes back to elements
+	 * @param factory: creates the empty tree to be filled, e.g. AVLBST::new
+	 * @return the rebuilt tree, of height floor(log2 n)
+	 * @throws IllegalArgumentException if the bytes are not a tree written by serialize
+	 */
+	@SuppressWarnings({"unchecked"})
+	public static <E> MyBST<E> deserialize(ByteBuffer in, ElementCodec<E> codec, Supplier<MyBST<E>> factory){
+		int n = readHeader(in, CODEC_ELEMENTS);
+		Object[] elements = new Object[n];
+		try{
+			for (int i = 0; i < n; i++)
+				elements[i] = codec.decode(in);
+		} catch (BufferUnderflowException e){
+			throw new IllegalArgumentException("Serialized tree is truncated");
+		}
+		MyBST<E> tree = factory.get();
+		tree.loadSorted((E[]) elements, n);
+		return tree;
+	}
+
+	/**
+	 * Decodes keys written by serializeInts.
+	 * @param in: buffer positioned at serialized keys; its position is advanced
+	 * @return the keys in increasing order
+	 * @throws IllegalArgumentException if the bytes are not keys written by serializeInts
+	 */
+	public static int[] deserializeInts(ByteBuffer in){
+		int n = readHeader(in, INT_GAPS);
+		int[] keys = new int[n];
+		try{
+			if (n > 0){
+				long zigzag = getVarint(in);
+				if (zigzag < 0 || zigzag > 0xffffffffL)
+					throw new IllegalArgumentException("Key out of range at index 0");
+				int z = (int) zigzag;
+				keys[0] = (z >>> 1) ^ -(z & 1);
+			}
+			for (int i = 1; i < n; i++){
+				long gap = getVarint(in);			// checked before adding, so the sum cannot wrap
+				if (gap < 0 || gap >= (long) Integer.MAX_VALUE - keys[i - 1])
+					throw new IllegalArgumentException("Key out of range at index " + i);
+				keys[i] = (int) (keys[i - 1] + gap + 1);
+			}
+		} catch (BufferUnderflowException e){
+			throw new IllegalArgumentException("Serialized keys are truncated");
+		}
+		return keys;
+	}
+
+	/**
+	 * Rebuilds an Integer tree from keys written by serializeInts, in linear time.
+	 * @param in: buffer positioned at serialized keys; its position is advanced
+	 * @param factory: creates the empty tree to be filled
+	 * @return the rebuilt tree, of height floor(log2 n)
+	 */
+	public static MyBST<Integer> deserializeInts(ByteBuffer in, Supplier<MyBST<Integer>> factory){
+		int[] keys = deserializeInts(in);
+		Integer[] boxed = new Integer[keys.length];
+		for (int i = 0; i < keys.length; i++)
+			boxed[i] = keys[i];
+		MyBST<Integer> tree = factory.get();
+		tree.loadSorted(boxed, boxed.length);
+		return tree;
+	}
+
+	/**
+	 * Maps a file written by write() into memory, for deserialize or deserializeInts.
+	 * Pages are read by the operating system as decoding reaches them.
+	 * @throws IOException if the file cannot be read
+	 */
+	public static ByteBuffer map(Path file) throws IOException {
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)){
+			return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+		}
+	}
+
+	// checks the header and returns the element count. Every element takes at least one
+	// byte, so a count larger than the remaining bytes is rejected before anything is allocated
+	private static int readHeader(ByteBuffer in, byte encoding){
+		try{
+			if (in.getInt() != MAGIC)
+				throw new IllegalArgumentException("Not a serialized tree");
+			byte version = in.get();
+			if (version != FORMAT_VERSION)
+				throw new IllegalArgumentException("Unsupported format version " + version);
+			byte e = in.get();
+			if (e != encoding)
+				throw new IllegalArgumentException("Serialized with encoding " + e + ", expected " + encoding);
+			long n = getVarint(in);
+			if (n < 0 || n > in.remaining())
+				throw new IllegalArgumentException("Element count out of range: " + n);
+			return (int) n;
+		} catch (BufferUnderflowException e){
+			throw new IllegalArgumentException("Serialized tree is truncated");
+		}
+	}
+
+	// reads a varint written by putVarint. Every value in this format is below 2^32,
+	// so at most 5 bytes are read; a longer varint is malformed
+	private static long getVarint(ByteBuffer in){
+		long v = 0;
+		for (int shift = 0; shift < 35; shift += 7){
+			byte b = in.get();
+			v |= (long) (b & 0x7f) << shift;
+			if (b >= 0)
+				return v;
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+}
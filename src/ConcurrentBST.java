@@ -0,0 +1,258 @@
+import net.datastructures.*;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.LongAdder;
+
+// thread-safe binary search tree. Elements are kept in the leaves of an external
+// (leaf-oriented) tree; lookups take no locks and writers lock only the nodes they change.
+public class ConcurrentBST<E> {
+
+	/**
+	 * Node of the tree. Internal nodes only route searches: elements smaller than
+	 * the routing element go left, all others go right. Leaves hold the elements.
+	 * The nodes at the top of the tree whose rank is nonzero stand for elements
+	 * larger than any real element, so real leaves always have a grandparent.
+	 */
+	private static final class Node<E> {
+		final E element;				// element (leaf) or routing element (internal node)
+		final int infinity;				// 0 for real elements; 1 or 2 for the sentinels
+		final boolean leaf;
+		volatile Node<E> left;
+		volatile Node<E> right;
+		volatile boolean removed = false;	// set once the node is unlinked
+		volatile int version = 0;			// odd while a writer changes a link of this node
+
+		Node(E e, int inf, Node<E> leftChild, Node<E> rightChild){
+			element = e;
+			infinity = inf;
+			leaf = (leftChild == null);
+			left = leftChild;
+			right = rightChild;
+		}
+	}
+
+	private final Comparator<E> comp;
+	private final Node<E> root;
+	private final LongAdder size = new LongAdder();
+
+	/**
+	 * Nodes whose links a multi-step read has followed, with the versions seen before
+	 * each link was read. The read is consistent if none of them has changed since,
+	 * so readers only retry when a writer touched their own path.
+	 */
+	private static final class ReadSet {
+		private Node<?>[] nodes = new Node<?>[64];
+		private int[] versions = new int[64];
+		private int count = 0;
+
+		void clear() { count = 0; }
+
+		// records node before one of its links is read; false if a writer is changing it
+		boolean record(Node<?> node){
+			int v = node.version;
+			if ((v & 1) != 0)
+				return false;
+			if (count == nodes.length){
+				nodes = Arrays.copyOf(nodes, 2 * count);
+				versions = Arrays.copyOf(versions, 2 * count);
+			}
+			nodes[count] = node;
+			versions[count++] = v;
+			return true;
+		}
+
+		// true if no recorded node has changed since it was recorded
+		boolean validate(){
+			for (int i = 0; i < count; i++)
+				if (nodes[i].version != versions[i])
+					return false;
+			return true;
+		}
+	}
+
+	public ConcurrentBST(Comparator<E> c){			// compare by non-natural ordering
+		comp = c;
+		root = new Node<>(null, 2, new Node<>(null, 1, null, null), new Node<>(null, 2, null, null));
+	}
+	public ConcurrentBST(){ this(new DefaultComparator<E>()); }	// compare by natural ordering
+
+	/** Returns the number of elements; exact only when no writer is active. */
+	public int size() { return size.intValue(); }
+	public boolean isEmpty() { return size() == 0; }
+
+	// compares e with the (possibly infinite) element of node n
+	private int compareTo(E e, Node<E> n){
+		return (n.infinity > 0) ? -1 : comp.compare(e, n.element);
+	}
+
+	// returns the leaf reached by searching for e from the root
+	private Node<E> searchLeaf(E e){
+		Node<E> n = root;
+		while (!n.leaf)
+			n = (compareTo(e, n) < 0) ? n.left : n.right;
+		return n;
+	}
+
+	/**
+	 * Searches the tree for element e without taking any locks.
+	 * @param e: element for which you are searching
+	 * @return the stored element equal to e, or null
+	 */
+	public E findNode(E e){
+		Node<E> leaf = searchLeaf(e);
+		return (compareTo(e, leaf) == 0) ? leaf.element : null;
+	}
+
+	public boolean contains(E e) { return findNode(e) != null; }
+
+	/**
+	 * Adds element e to the tree. Locks only the parent of the leaf where e belongs.
+	 * @param e: element to be added
+	 * @return true if e was added, false if it was already in the tree
+	 */
+	public boolean add(E e){
+		while (true){
+			Node<E> parent = null;
+			Node<E> leaf = root;
+			while (!leaf.leaf){
+				parent = leaf;
+				leaf = (compareTo(e, leaf) < 0) ? leaf.left : leaf.right;
+			}
+			int c = compareTo(e, leaf);
+			if (c == 0)
+				return false;								// already in tree
+
+			// the new internal node routes between e and the existing leaf
+			Node<E> newLeaf = new Node<>(e, 0, null, null);
+			Node<E> internal = (c < 0)
+					? new Node<>(leaf.element, leaf.infinity, newLeaf, leaf)
+					: new Node<>(e, 0, leaf, newLeaf);
+
+			synchronized (parent){
+				if (parent.removed || (parent.left != leaf && parent.right != leaf))
+					continue;								// tree changed under us; retry
+				parent.version++;
+				if (parent.left == leaf)
+					parent.left = internal;
+				else
+					parent.right = internal;
+				parent.version++;
+			}
+			size.increment();
+			return true;
+		}
+	}
+
+	/**
+	 * Deletes element e from the tree. Locks only the grandparent and parent
+	 * of the leaf holding e, always in that (top-down) order.
+	 * @param e: element to be deleted
+	 * @return the deleted element, or null if e was not in the tree
+	 */
+	public E delete(E e){
+		while (true){
+			Node<E> grand = null;
+			Node<E> parent = null;
+			Node<E> leaf = root;
+			while (!leaf.leaf){
+				grand = parent;
+				parent = leaf;
+				leaf = (compareTo(e, leaf) < 0) ? leaf.left : leaf.right;
+			}
+			if (compareTo(e, leaf) != 0)
+				return null;								// not in tree
+
+			synchronized (grand){
+				synchronized (parent){
+					if (grand.removed || parent.removed
+							|| (grand.left != parent && grand.right != parent)
+							|| (parent.left != leaf && parent.right != leaf))
+						continue;							// tree changed under us; retry
+					Node<E> sibling = (parent.left == leaf) ? parent.right : parent.left;
+					grand.version++;
+					if (grand.left == parent)				// sibling takes parent's place
+						grand.left = sibling;
+					else
+						grand.right = sibling;
+					parent.removed = true;
+					leaf.removed = true;
+					grand.version++;
+				}
+			}
+			size.decrement();
+			return leaf.element;
+		}
+	}
+
+	/**
+	 * Returns the smallest element larger than e (e need not be in the tree).
+	 * Takes no locks; the search is repeated if a writer changed a node on its path meanwhile.
+	 * @param e: element whose successor is searched
+	 * @return the successor of e, or null if there is none
+	 */
+	public E successor(E e){
+		ReadSet read = new ReadSet();
+		retry:
+		while (true){
+			read.clear();
+			Node<E> candidate = null;				// subtree of elements larger than e
+			Node<E> n = root;
+			while (!n.leaf){
+				if (!read.record(n))
+					continue retry;
+				if (compareTo(e, n) < 0){
+					candidate = n.right;
+					n = n.left;
+				}
+				else
+					n = n.right;
+			}
+			if (compareTo(e, n) >= 0){				// leaf is not larger than e
+				n = candidate;
+				while (n != null && !n.leaf){
+					if (!read.record(n))
+						continue retry;
+					n = n.left;
+				}
+			}
+			if (read.validate())
+				return (n == null || n.infinity > 0) ? null : n.element;
+		}
+	}
+
+	/**
+	 * Returns the largest element smaller than e (e need not be in the tree).
+	 * Takes no locks; the search is repeated if a writer changed a node on its path meanwhile.
+	 * @param e: element whose predecessor is searched
+	 * @return the predecessor of e, or null if there is none
+	 */
+	public E predecessor(E e){
+		ReadSet read = new ReadSet();
+		retry:
+		while (true){
+			read.clear();
+			Node<E> candidate = null;				// subtree of elements smaller than e
+			Node<E> n = root;
+			while (!n.leaf){
+				if (!read.record(n))
+					continue retry;
+				if (compareTo(e, n) < 0)
+					n = n.left;
+				else{
+					candidate = n.left;
+					n = n.right;
+				}
+			}
+			if (compareTo(e, n) <= 0){				// leaf is not smaller than e
+				n = candidate;
+				while (n != null && !n.leaf){
+					if (!read.record(n))
+						continue retry;
+					n = n.right;
+				}
+			}
+			if (read.validate())
+				return (n == null || n.infinity > 0) ? null : n.element;
+		}
+	}
+}
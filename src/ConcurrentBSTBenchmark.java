@@ -0,0 +1,112 @@
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// measures throughput of ConcurrentBST against a synchronized MyBST
+// with 1, 4, 16 and 64 threads at several read/write ratios
+public class ConcurrentBSTBenchmark {
+
+	private static final int KEY_RANGE = 1000000;		// keys are drawn from [0, KEY_RANGE)
+	private static final int[] THREADS = {1, 4, 16, 64};
+	private static final int[] READ_PERCENT = {100, 90, 50, 10};
+	private static final long RUN_MILLIS = 1000;
+
+	// the operations a benchmark thread performs on a tree
+	private interface Target {
+		boolean contains(int e);
+		Integer successor(int e);
+		void add(int e);
+		void delete(int e);
+	}
+
+	// ConcurrentBST needs no outside synchronization
+	private static Target concurrent(){
+		final ConcurrentBST<Integer> tree = new ConcurrentBST<>();
+		return new Target(){
+			public boolean contains(int e) { return tree.contains(e); }
+			public Integer successor(int e) { return tree.successor(e); }
+			public void add(int e) { tree.add(e); }
+			public void delete(int e) { tree.delete(e); }
+		};
+	}
+
+	// the current practice: one lock around every call
+	private static Target locked(){
+		final MyBST<Integer> tree = new MyBST<>();
+		return new Target(){
+			public synchronized boolean contains(int e) {
+				return tree.root() != null && tree.findNode(tree.root(), e) != null;
+			}
+			public synchronized Integer successor(int e) {
+				Iterator<Integer> larger = tree.tailSet(e + 1);
+				return larger.hasNext() ? larger.next() : null;
+			}
+			public synchronized void add(int e) { tree.add(tree.root(), e); }
+			public synchronized void delete(int e) {
+				if (tree.root() != null) tree.delete(tree.root(), e);
+			}
+		};
+	}
+
+	/**
+	 * Runs the given number of threads against target for RUN_MILLIS, each
+	 * doing readPercent% reads, half of them lookups and half successor searches,
+	 * and splitting the rest between adds and deletes.
+	 * @return completed operations per second
+	 */
+	private static double run(final Target target, int threads, final int readPercent)
+			throws InterruptedException {
+		final AtomicBoolean stop = new AtomicBoolean(false);
+		final LongAdder ops = new LongAdder();
+		final CountDownLatch ready = new CountDownLatch(threads);
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++){
+			workers[t] = new Thread(() -> {
+				ThreadLocalRandom r = ThreadLocalRandom.current();
+				long count = 0;
+				ready.countDown();
+				while (!stop.get()){
+					int e = r.nextInt(KEY_RANGE);
+					int op = r.nextInt(100);
+					if (op < readPercent){
+						if ((op & 1) == 0) target.contains(e);
+						else target.successor(e);
+					}
+					else if ((op & 1) == 0) target.add(e);
+					else target.delete(e);
+					count++;
+				}
+				ops.add(count);
+			});
+			workers[t].start();
+		}
+		ready.await();
+		long start = System.nanoTime();
+		Thread.sleep(RUN_MILLIS);
+		stop.set(true);
+		for (Thread w : workers)
+			w.join();
+		return ops.sum() / ((System.nanoTime() - start) / 1e9);
+	}
+
+	// fills target with half of the key range, in random order
+	private static Target prefill(Target target){
+		Random r = new Random(526);
+		for (int i = 0; i < KEY_RANGE / 2; i++)
+			target.add(r.nextInt(KEY_RANGE));
+		return target;
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		System.out.printf("%8s %7s %18s %18s%n", "threads", "reads", "ConcurrentBST", "synchronized MyBST");
+		for (int reads : READ_PERCENT)
+			for (int threads : THREADS){
+				double c = run(prefill(concurrent()), threads, reads);
+				double s = run(prefill(locked()), threads, reads);
+				System.out.printf("%8d %6d%% %14.0f op/s %14.0f op/s%n", threads, reads, c, s);
+			}
+	}
+}
@@ -0,0 +1,59 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// converts elements to and from bytes, for trees that are written to disk
+public interface ElementCodec<E> {
+
+	/**
+	 * Returns the number of bytes encode will write for e.
+	 * @param e: element to be encoded
+	 */
+	int encodedSize(E e);
+
+	/**
+	 * Writes e at the position of out and advances the position.
+	 * @param e: element to be encoded
+	 * @param out: buffer with at least encodedSize(e) bytes remaining
+	 */
+	void encode(E e, ByteBuffer out);
+
+	/**
+	 * Reads one element at the position of in and advances the position.
+	 * @param in: buffer positioned at an encoded element
+	 * @return the decoded element
+	 * @throws IllegalArgumentException if the bytes are not a valid encoding
+	 */
+	E decode(ByteBuffer in);
+
+	/** Fixed-width codec for Integer elements. */
+	ElementCodec<Integer> INTEGER = new ElementCodec<Integer>(){
+		public int encodedSize(Integer e) { return 4; }
+		public void encode(Integer e, ByteBuffer out) { out.putInt(e); }
+		public Integer decode(ByteBuffer in) { return in.getInt(); }
+	};
+
+	/** Fixed-width codec for Long elements. */
+	ElementCodec<Long> LONG = new ElementCodec<Long>(){
+		public int encodedSize(Long e) { return 8; }
+		public void encode(Long e, ByteBuffer out) { out.putLong(e); }
+		public Long decode(ByteBuffer in) { return in.getLong(); }
+	};
+
+	/** Codec for String elements: byte length, then UTF-8 bytes. */
+	ElementCodec<String> STRING = new ElementCodec<String>(){
+		public int encodedSize(String e) { return 4 + e.getBytes(StandardCharsets.UTF_8).length; }
+		public void encode(String e, ByteBuffer out){
+			byte[] bytes = e.getBytes(StandardCharsets.UTF_8);
+			out.putInt(bytes.length);
+			out.put(bytes);
+		}
+		public String decode(ByteBuffer in){
+			int length = in.getInt();
+			if (length < 0 || length > in.remaining())
+				throw new IllegalArgumentException("String length out of range: " + length);
+			byte[] bytes = new byte[length];
+			in.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	};
+}
@@ -0,0 +1,122 @@
+import net.datastructures.*;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// immutable search tree stored in an array in Eytzinger (breadth-first) order.
+// The children of slot k are slots 2k and 2k+1, so a lookup walks down one array
+// and the top levels of the tree share a few cache lines.
+public class FrozenBST<E> implements Iterable<E> {
+
+	private final Comparator<E> comp;
+	private final Object[] tree;		// tree[1..n] in breadth-first order; tree[0] unused
+	private final int[] rankOf;			// rankOf[k] is the sorted position of tree[k]
+	private final Object[] sorted;		// the elements in increasing order
+	private final int n;
+
+	/**
+	 * Builds a frozen tree from elements given in strictly increasing order.
+	 * @param elements: elements in strictly increasing order
+	 * @param c: comparator defining the order
+	 * @throws IllegalArgumentException if the elements are not strictly increasing
+	 */
+	public FrozenBST(Iterable<E> elements, Comparator<E> c){
+		comp = c;
+		java.util.ArrayList<E> buffer = new java.util.ArrayList<>();
+		for (E e : elements)
+			buffer.add(e);
+		sorted = buffer.toArray();
+		n = sorted.length;
+		for (int i = 1; i < n; i++)
+			if (c.compare(element(sorted[i - 1]), element(sorted[i])) >= 0)
+				throw new IllegalArgumentException("Elements are not strictly increasing at index " + i);
+		tree = new Object[n + 1];
+		rankOf = new int[n + 1];
+		layout(0, 1);
+	}
+
+	public FrozenBST(Iterable<E> elements){ this(elements, new DefaultComparator<E>()); }
+
+	/**
+	 * Fills the subtree rooted at slot k by an inorder walk of the implicit tree.
+	 * @return the next unused sorted position
+	 */
+	private int layout(int i, int k){
+		if (k <= n){
+			i = layout(i, 2 * k);
+			tree[k] = sorted[i];
+			rankOf[k] = i++;
+			i = layout(i, 2 * k + 1);
+		}
+		return i;
+	}
+
+	@SuppressWarnings({"unchecked"})
+	private E element(Object o) { return (E) o; }
+
+	public int size() { return n; }
+	public boolean isEmpty() { return n == 0; }
+
+	/**
+	 * Returns the slot of the first element that is not smaller than e
+	 * (strictly larger than e, if strict), or 0 if there is none. The descent
+	 * has no data-dependent branch: each step only computes the next slot.
+	 */
+	private int lowerBound(E e, boolean strict){
+		int k = 1;
+		if (strict)
+			while (k <= n)
+				k = 2 * k + (comp.compare(element(tree[k]), e) <= 0 ? 1 : 0);
+		else
+			while (k <= n)
+				k = 2 * k + (comp.compare(element(tree[k]), e) < 0 ? 1 : 0);
+		// undo the trailing right turns, and the final left turn, of the descent
+		return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+	}
+
+	public boolean contains(E e){
+		int k = lowerBound(e, false);
+		return k != 0 && comp.compare(element(tree[k]), e) == 0;
+	}
+
+	/** Returns the number of elements smaller than e. */
+	public int rank(E e){
+		int k = lowerBound(e, false);
+		return (k == 0) ? n : rankOf[k];
+	}
+
+	/** Returns the smallest element not smaller than e, or null if there is none. */
+	public E ceiling(E e){
+		int k = lowerBound(e, false);
+		return (k == 0) ? null : element(tree[k]);
+	}
+
+	/** Returns the largest element not larger than e, or null if there is none. */
+	public E floor(E e){
+		int k = lowerBound(e, true);				// first element larger than e
+		int r = (k == 0) ? n : rankOf[k];
+		return (r == 0) ? null : element(sorted[r - 1]);
+	}
+
+	/**
+	 * Returns the element of rank r (with r smaller elements).
+	 * @throws IndexOutOfBoundsException if r is negative or not less than size()
+	 */
+	public E select(int r) throws IndexOutOfBoundsException {
+		if (r < 0 || r >= n) throw new IndexOutOfBoundsException("Illegal rank: " + r);
+		return element(sorted[r]);
+	}
+
+	/** Returns an iterator of the elements in increasing order. */
+	@Override
+	public Iterator<E> iterator(){
+		return new Iterator<E>(){
+			private int j = 0;
+			public boolean hasNext() { return j < n; }
+			public E next(){
+				if (j == n) throw new NoSuchElementException("No next element");
+				return element(sorted[j++]);
+			}
+		};
+	}
+}
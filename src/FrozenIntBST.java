@@ -0,0 +1,103 @@
+import java.util.NoSuchElementException;
+
+// immutable search tree of primitive ints stored in Eytzinger (breadth-first) order.
+// The children of slot k are slots 2k and 2k+1, so a lookup walks down one array
+// and the top levels of the tree share a few cache lines.
+public class FrozenIntBST {
+
+	private final int[] tree;		// tree[1..n] in breadth-first order; tree[0] unused
+	private final int[] rankOf;		// rankOf[k] is the sorted position of tree[k]
+	private final int[] sorted;		// the keys in increasing order
+	private final int n;
+
+	/**
+	 * Builds a frozen tree from keys in strictly increasing order.
+	 * The array is kept, not copied, and must not be modified afterwards.
+	 * @param keys: keys in strictly increasing order
+	 * @throws IllegalArgumentException if the keys are not strictly increasing
+	 */
+	public FrozenIntBST(int[] keys){
+		for (int i = 1; i < keys.length; i++)
+			if (keys[i - 1] >= keys[i])
+				throw new IllegalArgumentException("Keys are not strictly increasing at index " + i);
+		sorted = keys;
+		n = keys.length;
+		tree = new int[n + 1];
+		rankOf = new int[n + 1];
+		layout(0, 1);
+	}
+
+	/**
+	 * Fills the subtree rooted at slot k by an inorder walk of the implicit tree.
+	 * @return the next unused sorted position
+	 */
+	private int layout(int i, int k){
+		if (k <= n){
+			i = layout(i, 2 * k);
+			tree[k] = sorted[i];
+			rankOf[k] = i++;
+			i = layout(i, 2 * k + 1);
+		}
+		return i;
+	}
+
+	public int size() { return n; }
+	public boolean isEmpty() { return n == 0; }
+
+	/**
+	 * Returns the slot of the first key >= e (> e, if strict), or 0 if none.
+	 * The loop body is a compare and a shift-add, with no data-dependent branch.
+	 */
+	private int lowerBound(int e, boolean strict){
+		int k = 1;
+		if (strict)
+			while (k <= n)
+				k = 2 * k + (tree[k] <= e ? 1 : 0);
+		else
+			while (k <= n)
+				k = 2 * k + (tree[k] < e ? 1 : 0);
+		// undo the trailing right turns, and the final left turn, of the descent
+		return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+	}
+
+	public boolean contains(int e){
+		int k = lowerBound(e, false);
+		return k != 0 && tree[k] == e;
+	}
+
+	/** Returns the number of keys smaller than e. */
+	public int rank(int e){
+		int k = lowerBound(e, false);
+		return (k == 0) ? n : rankOf[k];
+	}
+
+	/**
+	 * Returns the smallest key not smaller than e.
+	 * @throws NoSuchElementException if every key is smaller than e
+	 */
+	public int ceiling(int e) throws NoSuchElementException {
+		int k = lowerBound(e, false);
+		if (k == 0) throw new NoSuchElementException("No key >= " + e);
+		return tree[k];
+	}
+
+	/**
+	 * Returns the largest key not larger than e.
+	 * @throws NoSuchElementException if every key is larger than e
+	 */
+	public int floor(int e) throws NoSuchElementException {
+		int k = lowerBound(e, true);				// first key larger than e
+		int r = (k == 0) ? n : rankOf[k];
+		if (r == 0) throw new NoSuchElementException("No key <= " + e);
+		return sorted[r - 1];
+	}
+
+	/**
+	 * Returns the key of rank r (with r smaller keys).
+	 * @throws IndexOutOfBoundsException if r is negative or not less than size()
+	 */
+	public int select(int r) throws IndexOutOfBoundsException {
+		if (r < 0 || r >= n) throw new IndexOutOfBoundsException("Illegal rank: " + r);
+		return sorted[r];
+	}
+}
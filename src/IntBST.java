@@ -0,0 +1,341 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+// binary search tree of primitive ints, stored in parallel arrays and linked by index.
+// Kept balanced as a left-leaning red-black tree, so no parent links are needed.
+public class IntBST {
+
+	private static final int NIL = 0;				// slot 0 is the (black) null node
+	private static final int CAPACITY = 16;		// default number of slots
+
+	private int[] key;			// key stored in each slot
+	private int[] left;			// index of left child of each slot (NIL if none)
+	private int[] right;		// index of right child of each slot (NIL if none)
+	private long[] red;			// bitmap of node colors; a set bit means red
+
+	private int root = NIL;
+	private int size = 0;
+	private int used = 1;		// slots [1, used) have been handed out at least once
+	private int free = NIL;		// head of the free-list of deleted slots, chained through left
+
+	private boolean changed;	// set by the recursive add helper when a node is created
+
+	public IntBST() { this(CAPACITY); }
+
+	public IntBST(int capacity){
+		capacity = Math.max(capacity + 1, 2);
+		key = new int[capacity];
+		left = new int[capacity];
+		right = new int[capacity];
+		red = new long[(capacity + 63) >>> 6];
+	}
+
+	public int size() { return size; }
+	public boolean isEmpty() { return size == 0; }
+
+	// color bookkeeping; NIL always reads as black and is never recolored
+	private boolean isRed(int n) { return (red[n >>> 6] & (1L << n)) != 0; }
+
+	private void setRed(int n, boolean isRed){
+		if (n == NIL) return;
+		if (isRed) red[n >>> 6] |= 1L << n;
+		else red[n >>> 6] &= ~(1L << n);
+	}
+
+	/**
+	 * Returns a fresh red slot holding e, reusing a deleted slot if one is available.
+	 * @param e: key to be stored
+	 * @return index of the new node
+	 */
+	private int newNode(int e){
+		int n;
+		if (free != NIL){
+			n = free;
+			free = left[n];
+		}
+		else{
+			if (used == key.length)
+				grow();
+			n = used++;
+		}
+		key[n] = e;
+		left[n] = NIL;
+		right[n] = NIL;
+		setRed(n, true);
+		return n;
+	}
+
+	// returns slot n to the free-list
+	private void freeNode(int n){
+		left[n] = free;
+		right[n] = NIL;
+		setRed(n, false);
+		free = n;
+	}
+
+	// doubles the capacity of the backing arrays
+	private void grow(){
+		int capacity = 2 * key.length;
+		key = Arrays.copyOf(key, capacity);
+		left = Arrays.copyOf(left, capacity);
+		right = Arrays.copyOf(right, capacity);
+		red = Arrays.copyOf(red, (capacity + 63) >>> 6);
+	}
+
+	/**
+	 * Tests whether e is stored in the tree. Performs no allocation.
+	 * @param e: key to be searched
+	 * @return true if e is in the tree
+	 */
+	public boolean contains(int e){
+		int n = root;
+		while (n != NIL){
+			if (e < key[n]) n = left[n];
+			else if (e > key[n]) n = right[n];
+			else return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds e to the tree.
+	 * @param e: key to be added
+	 * @return true if e was added, false if it was already in the tree
+	 */
+	public boolean add(int e){
+		changed = false;
+		root = add(root, e);
+		setRed(root, false);
+		if (changed)
+			size++;
+		return changed;
+	}
+
+	private int add(int h, int e){
+		if (h == NIL){
+			changed = true;
+			return newNode(e);
+		}
+		// the child is computed before it is stored, since add may grow the arrays
+		if (e < key[h]){
+			int child = add(left[h], e);
+			left[h] = child;
+		}
+		else if (e > key[h]){
+			int child = add(right[h], e);
+			right[h] = child;
+		}
+		else
+			return h;						// already in tree
+
+		return balance(h);
+	}
+
+	/**
+	 * Deletes e from the tree.
+	 * @param e: key to be deleted
+	 * @return true if e was deleted, false if it was not in the tree
+	 */
+	public boolean delete(int e){
+		if (!contains(e))
+			return false;
+		if (!isRed(left[root]) && !isRed(right[root]))
+			setRed(root, true);
+		root = delete(root, e);
+		setRed(root, false);
+		size--;
+		return true;
+	}
+
+	// deletes e (known to be present) from the subtree rooted at h
+	private int delete(int h, int e){
+		if (e < key[h]){
+			if (!isRed(left[h]) && !isRed(left[left[h]]))
+				h = moveRedLeft(h);
+			left[h] = delete(left[h], e);
+		}
+		else{
+			if (isRed(left[h]))
+				h = rotateRight(h);
+			if (e == key[h] && right[h] == NIL){
+				freeNode(h);
+				return NIL;
+			}
+			if (!isRed(right[h]) && !isRed(left[right[h]]))
+				h = moveRedRight(h);
+			if (e == key[h]){						// replace by successor, then delete it
+				int m = right[h];
+				while (left[m] != NIL)
+					m = left[m];
+				key[h] = key[m];
+				right[h] = deleteMin(right[h]);
+			}
+			else
+				right[h] = delete(right[h], e);
+		}
+		return balance(h);
+	}
+
+	// deletes the minimum of the subtree rooted at h
+	private int deleteMin(int h){
+		if (left[h] == NIL){
+			freeNode(h);
+			return NIL;
+		}
+		if (!isRed(left[h]) && !isRed(left[left[h]]))
+			h = moveRedLeft(h);
+		left[h] = deleteMin(left[h]);
+		return balance(h);
+	}
+
+	private int rotateLeft(int h){
+		int x = right[h];
+		right[h] = left[x];
+		left[x] = h;
+		setRed(x, isRed(h));
+		setRed(h, true);
+		return x;
+	}
+
+	private int rotateRight(int h){
+		int x = left[h];
+		left[h] = right[x];
+		right[x] = h;
+		setRed(x, isRed(h));
+		setRed(h, true);
+		return x;
+	}
+
+	private void flipColors(int h){
+		setRed(h, !isRed(h));
+		setRed(left[h], !isRed(left[h]));
+		setRed(right[h], !isRed(right[h]));
+	}
+
+	private int moveRedLeft(int h){
+		flipColors(h);
+		if (isRed(left[right[h]])){
+			right[h] = rotateRight(right[h]);
+			h = rotateLeft(h);
+			flipColors(h);
+		}
+		return h;
+	}
+
+	private int moveRedRight(int h){
+		flipColors(h);
+		if (isRed(left[left[h]])){
+			h = rotateRight(h);
+			flipColors(h);
+		}
+		return h;
+	}
+
+	// restores the left-leaning red-black invariants at h
+	private int balance(int h){
+		if (isRed(right[h]) && !isRed(left[h])) h = rotateLeft(h);
+		if (isRed(left[h]) && isRed(left[left[h]])) h = rotateRight(h);
+		if (isRed(left[h]) && isRed(right[h])) flipColors(h);
+		return h;
+	}
+
+	/**
+	 * Returns the smallest key in the tree that is larger than e.
+	 * e itself does not need to be in the tree. Performs no allocation.
+	 * @param e: key whose successor is searched
+	 * @return the successor of e
+	 * @throws NoSuchElementException if no key is larger than e
+	 */
+	public int successor(int e) throws NoSuchElementException {
+		int n = root;
+		int found = NIL;
+		while (n != NIL){
+			if (key[n] > e){
+				found = n;			// candidate; look for a smaller one on the left
+				n = left[n];
+			}
+			else
+				n = right[n];
+		}
+		if (found == NIL)
+			throw new NoSuchElementException("No successor of " + e);
+		return key[found];
+	}
+
+	/**
+	 * Returns the largest key in the tree that is smaller than e.
+	 * e itself does not need to be in the tree. Performs no allocation.
+	 * @param e: key whose predecessor is searched
+	 * @return the predecessor of e
+	 * @throws NoSuchElementException if no key is smaller than e
+	 */
+	public int predecessor(int e) throws NoSuchElementException {
+		int n = root;
+		int found = NIL;
+		while (n != NIL){
+			if (key[n] < e){
+				found = n;			// candidate; look for a larger one on the right
+				n = right[n];
+			}
+			else
+				n = left[n];
+		}
+		if (found == NIL)
+			throw new NoSuchElementException("No predecessor of " + e);
+		return key[found];
+	}
+
+	/**
+	 * Returns the smallest key in the tree.
+	 * @throws NoSuchElementException if the tree is empty
+	 */
+	public int min() throws NoSuchElementException {
+		if (root == NIL) throw new NoSuchElementException("Tree is empty");
+		int n = root;
+		while (left[n] != NIL)
+			n = left[n];
+		return key[n];
+	}
+
+	/**
+	 * Returns the largest key in the tree.
+	 * @throws NoSuchElementException if the tree is empty
+	 */
+	public int max() throws NoSuchElementException {
+		if (root == NIL) throw new NoSuchElementException("Tree is empty");
+		int n = root;
+		while (right[n] != NIL)
+			n = right[n];
+		return key[n];
+	}
+
+	/**
+	 * Returns an immutable, array-based copy of this tree laid out for
+	 * cache-friendly lookups. Later changes to this tree do not affect it.
+	 * @return frozen copy of the tree
+	 */
+	public FrozenIntBST freeze(){
+		return new FrozenIntBST(toArray());
+	}
+
+	/**
+	 * Returns the keys of the tree in increasing order.
+	 * @return new array of size() keys
+	 */
+	public int[] toArray(){
+		int[] result = new int[size];
+		int[] stack = new int[64];		// a red-black tree of 2^31 keys is shallower than this
+		int top = 0, count = 0;
+		int n = root;
+		while (n != NIL || top > 0){
+			while (n != NIL){
+				stack[top++] = n;
+				n = left[n];
+			}
+			n = stack[--top];
+			result[count++] = key[n];
+			n = right[n];
+		}
+		return result;
+	}
+}
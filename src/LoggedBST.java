@@ -0,0 +1,469 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+// in-memory MyBST made durable by a write-ahead log. Every add or delete that changes
+// the tree is appended to a log buffer; a background thread writes and fsyncs the buffer
+// once per interval or batch (group commit), so writers never wait for the disk.
+// A checkpoint writes the elements in order to a snapshot file and starts a new log file;
+// recovery bulk-loads the snapshot and replays the log files written after it.
+public class LoggedBST<E> implements Closeable {
+
+	public static final long DEFAULT_SYNC_MILLIS = 5;
+	public static final int DEFAULT_BATCH_SIZE = 4096;
+
+	// log record: op, payload length, payload, CRC32 of the preceding bytes
+	private static final byte ADD = 1;
+	private static final byte DELETE = 2;
+	private static final int RECORD_OVERHEAD = 1 + 4 + 4;
+
+	// checkpoint file: magic, version, first log generation to replay, count,
+	// elements in increasing order, CRC32 of everything before it
+	private static final long MAGIC = 0x4c6f676765644253L;		// "LoggedBS"
+	private static final int FORMAT_VERSION = 1;
+	private static final int CHECKPOINT_HEADER = 8 + 4 + 8 + 8;
+
+	private static final String CHECKPOINT = "checkpoint";
+	private static final String CHECKPOINT_TEMP = "checkpoint.tmp";
+	private static final String LOG_PREFIX = "wal-";
+
+	private final Path dir;
+	private final ElementCodec<E> codec;
+	private final MyBST<E> tree;
+
+	// state guarded by this object's monitor: the tree, the active log buffer and counters
+	private ByteBuffer active = ByteBuffer.allocate(1 << 16);
+	private final CRC32 crc = new CRC32();
+	private int pending = 0;					// records in the active buffer
+	private long sinceCheckpoint = 0;			// records logged since the last checkpoint
+	private boolean closed = false;
+	private IOException failure = null;		// first error of the background thread
+
+	private long syncMillis = DEFAULT_SYNC_MILLIS;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private long checkpointInterval = 0;		// records between automatic checkpoints; 0 for none
+
+	// serializes checkpoints; taken before flushLock
+	private final Object checkpointLock = new Object();
+
+	// state guarded by flushLock, which is always taken before this object's monitor
+	private final Object flushLock = new Object();
+	private ByteBuffer spare = ByteBuffer.allocate(1 << 16);
+	private FileChannel log;
+	private long generation;					// number of the current log file
+
+	private final Thread flusher;
+
+	private LoggedBST(Path directory, ElementCodec<E> c, MyBST<E> t){
+		dir = directory;
+		codec = c;
+		tree = t;
+		flusher = new Thread(this::runFlusher, "LoggedBST flusher");
+		flusher.setDaemon(true);
+	}
+
+	/**
+	 * Opens the tree stored in directory, recovering it from the latest checkpoint and
+	 * the log written after it. A record torn by a crash ends the log and is discarded.
+	 * @param directory: directory holding the checkpoint and log files; created if absent
+	 * @param codec: converts elements to and from bytes
+	 * @param factory: creates the empty tree to be filled, e.g. RedBlackBST::new
+	 * @return the recovered tree
+	 * @throws IOException if the files cannot be read or are corrupted
+	 */
+	public static <E> LoggedBST<E> open(Path directory, ElementCodec<E> codec, Supplier<MyBST<E>> factory)
+			throws IOException {
+		Files.createDirectories(directory);
+		LoggedBST<E> t = new LoggedBST<>(directory, codec, factory.get());
+		t.recover();
+		t.flusher.start();
+		return t;
+	}
+
+	public static <E> LoggedBST<E> open(Path directory, ElementCodec<E> codec) throws IOException {
+		return open(directory, codec, MyBST::new);
+	}
+
+	/** Sets the longest time a logged update waits before it is written and synced. */
+	public synchronized void setSyncInterval(long millis){
+		if (millis < 1) throw new IllegalArgumentException("Interval must be positive");
+		syncMillis = millis;
+	}
+
+	/** Sets the number of buffered records that triggers a sync before the interval ends. */
+	public synchronized void setBatchSize(int records){
+		if (records < 1) throw new IllegalArgumentException("Batch size must be positive");
+		batchSize = records;
+	}
+
+	/** Sets the number of logged records after which a checkpoint is taken; 0 turns this off. */
+	public synchronized void setCheckpointInterval(long records){
+		if (records < 0) throw new IllegalArgumentException("Interval must not be negative");
+		checkpointInterval = records;
+	}
+
+	//---------------- tree operations ----------------
+
+	/**
+	 * Adds e to the tree and logs it. Returns without waiting for the disk;
+	 * the update is durable after the next group commit or sync().
+	 * @param e: element to be added
+	 * @return true if e was added, false if it was already in the tree
+	 * @throws UncheckedIOException if writing the log has failed
+	 */
+	public synchronized boolean add(E e){
+		checkUsable();
+		if (tree.add(tree.root(), e) == null)
+			return false;
+		append(ADD, e);
+		return true;
+	}
+
+	/**
+	 * Deletes e from the tree and logs it. Returns without waiting for the disk;
+	 * the update is durable after the next group commit or sync().
+	 * @param e: element to be deleted
+	 * @return the deleted element, or null if e was not in the tree
+	 * @throws UncheckedIOException if writing the log has failed
+	 */
+	public synchronized E delete(E e){
+		checkUsable();
+		E removed = tree.isEmpty() ? null : tree.delete(tree.root(), e);
+		if (removed != null)
+			append(DELETE, e);
+		return removed;
+	}
+
+	public synchronized boolean contains(E e){
+		return !tree.isEmpty() && tree.findNode(tree.root(), e) != null;
+	}
+
+	public synchronized int size() { return tree.size(); }
+	public synchronized boolean isEmpty() { return tree.isEmpty(); }
+
+	private void checkUsable(){
+		if (closed) throw new IllegalStateException("Tree is closed");
+		if (failure != null) throw new UncheckedIOException("Log write failed", failure);
+	}
+
+	// adds a record to the active buffer; caller holds this object's monitor
+	private void append(byte op, E e){
+		int payload = codec.encodedSize(e);
+		if (active.remaining() < RECORD_OVERHEAD + payload){
+			ByteBuffer bigger = ByteBuffer.allocate(Math.max(2 * active.capacity(),
+					active.position() + RECORD_OVERHEAD + payload));
+			active.flip();
+			active = bigger.put(active);
+		}
+		int start = active.position();
+		active.put(op).putInt(payload);
+		codec.encode(e, active);
+		crc.reset();
+		crc.update(active.array(), active.arrayOffset() + start, active.position() - start);
+		active.putInt((int) crc.getValue());
+		pending++;
+		sinceCheckpoint++;
+		if (pending == batchSize)
+			notifyAll();						// wake the flusher early
+	}
+
+	//---------------- group commit ----------------
+
+	/**
+	 * Writes and syncs every update logged so far. Blocks until they are durable.
+	 * @throws IOException if the log cannot be written
+	 */
+	public void sync() throws IOException {
+		flush();
+		synchronized (this){
+			if (failure != null) throw failure;
+		}
+	}
+
+	// swaps the active buffer for the spare one, then writes and syncs it outside the monitor
+	private void flush() throws IOException {
+		synchronized (flushLock){
+			ByteBuffer out;
+			synchronized (this){
+				if (pending == 0)
+					return;
+				out = active;
+				active = spare;
+				pending = 0;
+			}
+			writeLog(out);
+		}
+	}
+
+	// writes and syncs out to the current log file, then keeps it as the spare buffer;
+	// caller holds flushLock
+	private void writeLog(ByteBuffer out) throws IOException {
+		out.flip();
+		while (out.hasRemaining())
+			log.write(out);
+		log.force(false);
+		out.clear();
+		spare = out;
+	}
+
+	// body of the background thread: one group commit per interval, or sooner when a batch fills
+	private void runFlusher(){
+		try{
+			while (true){
+				boolean checkpointDue;
+				synchronized (this){
+					if (!closed && pending < batchSize)
+						wait(syncMillis);
+					if (closed)
+						return;
+					checkpointDue = checkpointInterval > 0 && sinceCheckpoint >= checkpointInterval;
+				}
+				flush();
+				if (checkpointDue)
+					checkpoint();
+			}
+		} catch (IOException e){
+			synchronized (this){
+				failure = e;
+			}
+		} catch (InterruptedException e){
+			// closing
+		}
+	}
+
+	//---------------- checkpoints ----------------
+
+	/**
+	 * Writes all elements, in order, to a new checkpoint file and starts a new log file.
+	 * Updates and lookups wait only while the log is rotated and the elements are copied
+	 * in memory; the checkpoint file is written and synced after they resume. Older log
+	 * files are deleted once the new checkpoint has replaced the old one.
+	 * @throws IOException if the checkpoint cannot be written
+	 */
+	public void checkpoint() throws IOException {
+		synchronized (checkpointLock){
+			Path temp = dir.resolve(CHECKPOINT_TEMP);
+			long first;
+			Object[] elements;
+			synchronized (flushLock){
+				flush();								// most pending records, outside the monitor
+				ByteBuffer tail;
+				synchronized (this){
+					tail = active;						// records logged since, still for the old file
+					active = spare;
+					pending = 0;
+					elements = new Object[tree.size()];	// the state the new log file starts from
+					int n = 0;
+					for (E e : tree)
+						elements[n++] = e;
+					sinceCheckpoint = 0;
+				}
+				writeLog(tail);
+				log.close();							// later records go to a new log file
+				first = ++generation;
+				log = openLog(first);
+			}
+			writeCheckpoint(temp, first, elements);
+			Files.move(temp, dir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+			syncDirectory();
+			deleteLogsBefore(first);
+		}
+	}
+
+	// writes elements, which are in increasing order, to file and syncs it
+	@SuppressWarnings({"unchecked"})
+	private void writeCheckpoint(Path file, long firstLog, Object[] elements) throws IOException {
+		try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+			CRC32 sum = new CRC32();
+			buffer.putLong(MAGIC).putInt(FORMAT_VERSION).putLong(firstLog).putLong(elements.length);
+			for (Object o : elements){
+				E e = (E) o;
+				int need = codec.encodedSize(e);
+				if (buffer.remaining() < need){
+					drain(out, buffer, sum);
+					if (buffer.capacity() < need)
+						buffer = ByteBuffer.allocate(need);
+				}
+				codec.encode(e, buffer);
+			}
+			if (buffer.remaining() < 8)
+				drain(out, buffer, sum);
+			drain(out, buffer, sum);
+			buffer.putLong(sum.getValue());
+			buffer.flip();
+			while (buffer.hasRemaining())
+				out.write(buffer);
+			out.force(true);
+		}
+	}
+
+	// writes the contents of buffer to out, adding them to the checksum, and clears it
+	private static void drain(FileChannel out, ByteBuffer buffer, CRC32 sum) throws IOException {
+		buffer.flip();
+		sum.update(buffer.array(), buffer.arrayOffset(), buffer.limit());
+		while (buffer.hasRemaining())
+			out.write(buffer);
+		buffer.clear();
+	}
+
+	//---------------- recovery ----------------
+
+	@SuppressWarnings({"unchecked"})
+	private void recover() throws IOException {
+		Files.deleteIfExists(dir.resolve(CHECKPOINT_TEMP));		// left by an interrupted checkpoint
+		long first = 0;
+		Path checkpoint = dir.resolve(CHECKPOINT);
+		if (Files.exists(checkpoint)){
+			ByteBuffer in = map(checkpoint);
+			int end = in.limit() - 8;
+			if (end < CHECKPOINT_HEADER || in.getLong(0) != MAGIC || in.getInt(8) != FORMAT_VERSION)
+				throw new IOException("Not a checkpoint file: " + checkpoint);
+			CRC32 sum = new CRC32();
+			ByteBuffer body = in.duplicate();
+			body.limit(end);
+			sum.update(body);
+			if (in.getLong(end) != sum.getValue())
+				throw new IOException("Checkpoint checksum mismatch: " + checkpoint);
+			first = in.getLong(12);
+			long count = in.getLong(20);
+			Object[] elements = new Object[(int) count];
+			in.position(CHECKPOINT_HEADER);
+			for (int i = 0; i < elements.length; i++)
+				elements[i] = codec.decode(in);
+			tree.loadSorted((E[]) elements, elements.length);
+		}
+
+		long[] logs = logGenerations();
+		long last = first;
+		for (int i = 0; i < logs.length; i++){
+			if (logs[i] < first)
+				continue;
+			long valid = replay(dir.resolve(LOG_PREFIX + logs[i]));
+			if (valid >= 0 && i < logs.length - 1)
+				throw new IOException("Corrupted record in log " + logs[i] + " at byte " + valid);
+			last = logs[i];
+			if (valid >= 0)							// drop the torn tail before appending
+				try (FileChannel ch = FileChannel.open(dir.resolve(LOG_PREFIX + last), StandardOpenOption.WRITE)){
+					ch.truncate(valid);
+				}
+		}
+		deleteLogsBefore(first);
+		generation = last;
+		log = openLog(last);
+	}
+
+	/**
+	 * Applies the records of a log file to the tree.
+	 * @return the offset of the first invalid record, or -1 if the whole file is valid
+	 */
+	private long replay(Path file) throws IOException {
+		ByteBuffer in = map(file);
+		CRC32 sum = new CRC32();
+		while (in.hasRemaining()){
+			int start = in.position();
+			if (in.remaining() < RECORD_OVERHEAD)
+				return start;
+			byte op = in.get();
+			int payload = in.getInt();
+			if ((op != ADD && op != DELETE) || payload < 0 || payload > in.remaining() - 4)
+				return start;
+			ByteBuffer record = in.duplicate();
+			record.position(start).limit(start + 5 + payload);
+			sum.reset();
+			sum.update(record);
+			in.position(start + 5 + payload);
+			if (in.getInt() != (int) sum.getValue())
+				return start;
+			in.position(start + 5);
+			E e = codec.decode(in);
+			in.position(start + 5 + payload + 4);
+			if (op == ADD)
+				tree.add(tree.root(), e);
+			else if (!tree.isEmpty())
+				tree.delete(tree.root(), e);
+		}
+		return -1;
+	}
+
+	private static ByteBuffer map(Path file) throws IOException {
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)){
+			return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+		}
+	}
+
+	// returns the generations of the log files in the directory, in increasing order
+	private long[] logGenerations() throws IOException {
+		long[] found = new long[8];
+		int n = 0;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, LOG_PREFIX + "*")){
+			for (Path f : files){
+				try{
+					long g = Long.parseLong(f.getFileName().toString().substring(LOG_PREFIX.length()));
+					if (n == found.length)
+						found = Arrays.copyOf(found, 2 * n);
+					found[n++] = g;
+				} catch (NumberFormatException ignored){ }
+			}
+		}
+		found = Arrays.copyOf(found, n);
+		Arrays.sort(found);
+		return found;
+	}
+
+	private void deleteLogsBefore(long g) throws IOException {
+		for (long old : logGenerations())
+			if (old < g)
+				Files.deleteIfExists(dir.resolve(LOG_PREFIX + old));
+	}
+
+	private FileChannel openLog(long g) throws IOException {
+		return FileChannel.open(dir.resolve(LOG_PREFIX + g), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+
+	// makes the rename of the checkpoint durable, where the platform allows syncing a directory
+	private void syncDirectory(){
+		try (FileChannel d = FileChannel.open(dir, StandardOpenOption.READ)){
+			d.force(true);
+		} catch (IOException ignored){ }
+	}
+
+	/**
+	 * Stops the background thread, then writes and syncs the remaining log records.
+	 * @throws IOException if the log cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this){
+			if (closed)
+				return;
+			closed = true;
+			notifyAll();
+		}
+		try{
+			flusher.join();
+		} catch (InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+		try{
+			sync();
+		} finally{
+			synchronized (flushLock){
+				log.close();
+			}
+		}
+	}
+}
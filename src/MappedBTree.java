@@ -0,0 +1,681 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.zip.CRC32;
+
+// ordered set of long keys stored as a B+ tree in a memory-mapped file.
+// Pages are never overwritten while a committed root can reach them: an update copies
+// the pages on its path, and commit() publishes the new root through a checksummed header.
+// Opening a file reads only the header; other pages are faulted in as searches touch them.
+public class MappedBTree implements Closeable {
+
+	public static final int PAGE_SIZE = 4096;
+
+	// header layout; headers live in pages 0 and 1, alternating by generation
+	private static final long MAGIC = 0x4d42547265653031L;		// "MBTree01"
+	private static final int FORMAT_VERSION = 1;
+	private static final int H_MAGIC = 0;
+	private static final int H_VERSION = 8;
+	private static final int H_PAGE_SIZE = 12;
+	private static final int H_GENERATION = 16;
+	private static final int H_ROOT = 24;
+	private static final int H_PAGE_COUNT = 28;
+	private static final int H_SIZE = 32;
+	private static final int H_CHECKSUM = 40;		// CRC32 of bytes [0, H_CHECKSUM)
+	private static final int FIRST_DATA_PAGE = 2;
+
+	// node layout: type, key count, then keys (and, in inner nodes, child pages)
+	private static final int TYPE = 0;
+	private static final int COUNT = 4;
+	private static final int KEYS = 8;
+	private static final int LEAF = 1;
+	private static final int INNER = 2;
+	private static final int LEAF_MAX = (PAGE_SIZE - KEYS) / 8;				// 511 keys
+	private static final int INNER_MAX = (PAGE_SIZE - KEYS - 4) / 12;		// 340 keys, 341 children
+	private static final int CHILDREN = KEYS + 8 * INNER_MAX;
+
+	// the file is mapped in regions of up to 2^REGION_BITS pages each. A region's mapping
+	// starts small and doubles when a page past its end is touched, so the file grows
+	// with the tree rather than a whole region at a time
+	private static final int REGION_BITS = 14;								// 64MB regions
+	private static final int REGION_MASK = (1 << REGION_BITS) - 1;
+	private static final int MIN_MAPPED_PAGES = 16;
+
+	private final FileChannel channel;
+	private MappedByteBuffer[] regions = new MappedByteBuffer[16];
+	private final BitSet dirtyRegions = new BitSet();
+
+	private long generation;	// generation of the last committed header
+	private int root;
+	private int pageCount;		// pages [0, pageCount) are in use or on a free list
+	private long size;
+
+	// copy-on-write bookkeeping. Pages allocated since the last commit are private to
+	// the open transaction and may be changed in place. A page replaced by a copy is
+	// still part of the previous committed tree, which the other header slot may need
+	// after a torn header write, so it is recycled only after the next commit.
+	private final BitSet fresh = new BitSet();
+	private int[] freedNow = new int[16];		// replaced since the last commit
+	private int freedNowCount = 0;
+	private int[] freedBefore = new int[16];	// replaced before the last commit
+	private int freedBeforeCount = 0;
+	private int[] reusable = new int[16];		// safe to allocate
+	private int reusableCount = 0;
+
+	private MappedBTree(FileChannel ch){
+		channel = ch;
+	}
+
+	/**
+	 * Opens the tree stored in file, creating an empty tree if the file is new.
+	 * Only the two header pages are read; the cost does not depend on the tree size.
+	 * Pages freed before the file was closed are not tracked across sessions,
+	 * so their space is not reused.
+	 * @param file: path of the tree file
+	 * @return the opened tree
+	 * @throws IOException if the file cannot be opened or holds no valid header
+	 */
+	public static MappedBTree open(Path file) throws IOException {
+		FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		MappedBTree tree = new MappedBTree(ch);
+		try{
+			if (ch.size() == 0)
+				tree.format();
+			else
+				tree.readHeader();
+		} catch (IOException | RuntimeException e){
+			ch.close();
+			throw e;
+		}
+		return tree;
+	}
+
+	// writes an empty tree to a new file
+	private void format() throws IOException {
+		generation = 0;
+		pageCount = FIRST_DATA_PAGE;
+		root = allocate();
+		setType(root, LEAF);
+		setCount(root, 0);
+		size = 0;
+		commit();
+	}
+
+	// adopts the valid header with the larger generation. The headers are read, not mapped,
+	// so opening a file that is not a tree leaves it unchanged
+	private void readHeader() throws IOException {
+		if (channel.size() < (long) FIRST_DATA_PAGE * PAGE_SIZE)
+			throw new IOException("File too short for a tree header: " + channel.size() + " bytes");
+		ByteBuffer first = validHeader(0);
+		ByteBuffer second = validHeader(1);
+		if (first == null && second == null)
+			throw new IOException("No valid header: not a tree file, or corrupted");
+		ByteBuffer h = (second == null || (first != null
+				&& first.getLong(H_GENERATION) > second.getLong(H_GENERATION))) ? first : second;
+		generation = h.getLong(H_GENERATION);
+		root = h.getInt(H_ROOT);
+		pageCount = h.getInt(H_PAGE_COUNT);
+		size = h.getLong(H_SIZE);
+		if (pageCount < FIRST_DATA_PAGE || (long) pageCount * PAGE_SIZE > channel.size())
+			throw new IOException("Header names " + pageCount + " pages, but the file is shorter");
+	}
+
+	// returns header slot s if its magic, format and checksum are intact, else null
+	private ByteBuffer validHeader(int s) throws IOException {
+		ByteBuffer h = ByteBuffer.allocate(H_CHECKSUM + 8).order(ByteOrder.nativeOrder());
+		long at = (long) s * PAGE_SIZE;
+		while (h.hasRemaining())
+			if (channel.read(h, at + h.position()) < 0)
+				return null;
+		h.clear();
+		if (h.getLong(H_MAGIC) != MAGIC || h.getInt(H_VERSION) != FORMAT_VERSION
+				|| h.getInt(H_PAGE_SIZE) != PAGE_SIZE)
+			return null;
+		return (h.getLong(H_CHECKSUM) == checksum(h)) ? h : null;
+	}
+
+	private static long checksum(ByteBuffer header){
+		ByteBuffer b = header.duplicate();
+		b.position(0).limit(H_CHECKSUM);
+		CRC32 crc = new CRC32();
+		crc.update(b);
+		return crc.getValue();
+	}
+
+	/**
+	 * Makes all changes since the last commit durable. New pages are flushed
+	 * first; only then is the header naming the new root written, to the slot
+	 * not holding the previous header, and flushed. A crash at any point leaves
+	 * either the old or the new tree intact.
+	 * @throws IOException if the file cannot be written
+	 */
+	public void commit() throws IOException {
+		for (int r = dirtyRegions.nextSetBit(0); r >= 0; r = dirtyRegions.nextSetBit(r + 1))
+			regions[r].force();
+		dirtyRegions.clear();
+
+		long next = generation + 1;
+		ByteBuffer h = page((int) (next & 1));
+		h.putLong(H_MAGIC, MAGIC);
+		h.putInt(H_VERSION, FORMAT_VERSION);
+		h.putInt(H_PAGE_SIZE, PAGE_SIZE);
+		h.putLong(H_GENERATION, next);
+		h.putInt(H_ROOT, root);
+		h.putInt(H_PAGE_COUNT, pageCount);
+		h.putLong(H_SIZE, size);
+		h.putLong(H_CHECKSUM, checksum(h));
+		regions[0].force();
+		dirtyRegions.clear();
+		generation = next;
+
+		// the tree two generations back is now unreachable from either header
+		for (int i = 0; i < freedBeforeCount; i++)
+			reusable = push(reusable, reusableCount++, freedBefore[i]);
+		int[] swap = freedBefore;
+		freedBefore = freedNow;
+		freedBeforeCount = freedNowCount;
+		freedNow = swap;
+		freedNowCount = 0;
+		fresh.clear();
+	}
+
+	/** Commits any pending changes and closes the file. */
+	@Override
+	public void close() throws IOException {
+		try{
+			commit();
+		} finally{
+			channel.close();
+		}
+	}
+
+	public long size() { return size; }
+	public boolean isEmpty() { return size == 0; }
+
+	//---------------- page access ----------------
+
+	// returns a buffer whose bytes [0, PAGE_SIZE) are page p, mapping its region if needed
+	private ByteBuffer page(int p){
+		MappedByteBuffer region = region(p);
+		ByteBuffer b = region.duplicate();
+		b.position(base(p)).limit(base(p) + PAGE_SIZE);
+		return b.slice().order(ByteOrder.nativeOrder());
+	}
+
+	// field accessors go straight to the region, without building a page buffer
+	private MappedByteBuffer region(int p){
+		int r = p >>> REGION_BITS;
+		if (r >= regions.length || regions[r] == null || regions[r].capacity() <= base(p))
+			map(r, (p & REGION_MASK) + 1);
+		return regions[r];
+	}
+
+	// maps at least the first pages of region r, doubling its current mapping. Mapping
+	// past the end of the file extends it. Buffers from the old mapping stay valid and
+	// see the same file contents.
+	private void map(int r, int pages){
+		if (r >= regions.length)
+			regions = Arrays.copyOf(regions, Math.max(2 * regions.length, r + 1));
+		int n = (regions[r] == null) ? MIN_MAPPED_PAGES : 2 * (regions[r].capacity() / PAGE_SIZE);
+		while (n < pages)
+			n *= 2;
+		n = Math.min(n, 1 << REGION_BITS);
+		try{
+			regions[r] = channel.map(FileChannel.MapMode.READ_WRITE,
+					((long) r * PAGE_SIZE) << REGION_BITS, (long) n * PAGE_SIZE);
+		} catch (IOException e){
+			throw new UncheckedIOException(e);
+		}
+		regions[r].order(ByteOrder.nativeOrder());
+	}
+	private int base(int p) { return (p & REGION_MASK) * PAGE_SIZE; }
+
+	private int type(int p) { return region(p).getInt(base(p) + TYPE); }
+	private int count(int p) { return region(p).getInt(base(p) + COUNT); }
+	private long key(int p, int i) { return region(p).getLong(base(p) + KEYS + 8 * i); }
+	private int child(int p, int i) { return region(p).getInt(base(p) + CHILDREN + 4 * i); }
+
+	private void setType(int p, int t) { region(p).putInt(base(p) + TYPE, t); }
+	private void setCount(int p, int n) { region(p).putInt(base(p) + COUNT, n); }
+	private void setKey(int p, int i, long k) { region(p).putLong(base(p) + KEYS + 8 * i, k); }
+	private void setChild(int p, int i, int c) { region(p).putInt(base(p) + CHILDREN + 4 * i, c); }
+
+	private static int[] push(int[] stack, int n, int p){
+		if (n == stack.length)
+			stack = Arrays.copyOf(stack, 2 * n);
+		stack[n] = p;
+		return stack;
+	}
+
+	// returns a page for the open transaction, reusing a recycled page if possible
+	private int allocate(){
+		int p;
+		if (reusableCount > 0)
+			p = reusable[--reusableCount];
+		else{
+			if (pageCount == Integer.MAX_VALUE)
+				throw new IllegalStateException("File is full");
+			p = pageCount++;
+		}
+		fresh.set(p);
+		dirtyRegions.set(p >>> REGION_BITS);
+		return p;
+	}
+
+	// returns page p if it belongs to the open transaction, else a copy that does
+	private int writable(int p){
+		if (fresh.get(p))
+			return p;
+		int copy = allocate();
+		ByteBuffer to = page(copy);
+		to.put(page(p));
+		freePage(p);
+		return copy;
+	}
+
+	// releases page p, which the open transaction no longer references
+	private void freePage(int p){
+		if (fresh.get(p)){					// never committed: reusable at once
+			fresh.clear(p);
+			reusable = push(reusable, reusableCount++, p);
+		}
+		else
+			freedNow = push(freedNow, freedNowCount++, p);
+	}
+
+	//---------------- searching ----------------
+
+	// returns the number of keys of page p smaller than k
+	private int lowerBound(int p, long k){
+		int lo = 0, hi = count(p);
+		while (lo < hi){
+			int mid = (lo + hi) >>> 1;
+			if (key(p, mid) < k) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	// returns the number of keys of page p not larger than k; for an inner
+	// page this is the index of the child whose key range covers k
+	private int upperBound(int p, long k){
+		int lo = 0, hi = count(p);
+		while (lo < hi){
+			int mid = (lo + hi) >>> 1;
+			if (key(p, mid) <= k) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	public boolean contains(long k){
+		int p = root;
+		while (type(p) == INNER)
+			p = child(p, upperBound(p, k));
+		int i = lowerBound(p, k);
+		return i < count(p) && key(p, i) == k;
+	}
+
+	/**
+	 * Returns the smallest key not smaller than k.
+	 * @throws NoSuchElementException if every key is smaller than k
+	 */
+	public long ceiling(long k) throws NoSuchElementException {
+		int p = root;
+		int later = 0;						// deepest subtree of keys larger than the search path
+		while (type(p) == INNER){
+			int j = upperBound(p, k);
+			if (j < count(p))
+				later = child(p, j + 1);
+			p = child(p, j);
+		}
+		int i = lowerBound(p, k);
+		if (i < count(p))
+			return key(p, i);
+		if (later == 0)
+			throw new NoSuchElementException("No key >= " + k);
+		while (type(later) == INNER)
+			later = child(later, 0);
+		return key(later, 0);
+	}
+
+	/**
+	 * Returns the largest key not larger than k.
+	 * @throws NoSuchElementException if every key is larger than k
+	 */
+	public long floor(long k) throws NoSuchElementException {
+		int p = root;
+		int earlier = 0;					// deepest subtree of keys smaller than the search path
+		while (type(p) == INNER){
+			int j = upperBound(p, k);
+			if (j > 0)
+				earlier = child(p, j - 1);
+			p = child(p, j);
+		}
+		int i = upperBound(p, k);
+		if (i > 0)
+			return key(p, i - 1);
+		if (earlier == 0)
+			throw new NoSuchElementException("No key <= " + k);
+		while (type(earlier) == INNER)
+			earlier = child(earlier, count(earlier));
+		return key(earlier, count(earlier) - 1);
+	}
+
+	/**
+	 * Returns the smallest key larger than k (k need not be in the tree).
+	 * @throws NoSuchElementException if there is none
+	 */
+	public long successor(long k) throws NoSuchElementException {
+		if (k == Long.MAX_VALUE) throw new NoSuchElementException("No key > " + k);
+		return ceiling(k + 1);
+	}
+
+	/**
+	 * Returns the largest key smaller than k (k need not be in the tree).
+	 * @throws NoSuchElementException if there is none
+	 */
+	public long predecessor(long k) throws NoSuchElementException {
+		if (k == Long.MIN_VALUE) throw new NoSuchElementException("No key < " + k);
+		return floor(k - 1);
+	}
+
+	/** @throws NoSuchElementException if the tree is empty */
+	public long min() throws NoSuchElementException { return ceiling(Long.MIN_VALUE); }
+
+	/** @throws NoSuchElementException if the tree is empty */
+	public long max() throws NoSuchElementException { return floor(Long.MAX_VALUE); }
+
+	// inner pages of the last update's search path, root first, and the child taken at each
+	private int[] pathPages = new int[16];
+	private int[] pathChildren = new int[16];
+	private int depth;
+
+	// records the path from the root to the leaf where k belongs; returns that leaf
+	private int descend(long k){
+		depth = 0;
+		int p = root;
+		while (type(p) == INNER){
+			int j = upperBound(p, k);
+			pathPages = push(pathPages, depth, p);
+			pathChildren = push(pathChildren, depth++, j);
+			p = child(p, j);
+		}
+		return p;
+	}
+
+	//---------------- adding ----------------
+
+	// a split below the current node leaves its new right sibling and separator here
+	private int splitPage;
+	private long splitKey;
+
+	/**
+	 * Adds key k to the tree. The change is visible at once and durable after commit().
+	 * A single descent finds the leaf; pages are copied only if k is not there yet.
+	 * @param k: key to be added
+	 * @return true if k was added, false if it was already in the tree
+	 */
+	public boolean add(long k){
+		int leaf = descend(k);
+		int i = lowerBound(leaf, k);
+		if (i < count(leaf) && key(leaf, i) == k)
+			return false;
+		splitPage = 0;
+		int c = insertInLeaf(leaf, i, k);
+		for (int d = depth - 1; d >= 0; d--){		// copy the path upward, adding any split
+			int p = writable(pathPages[d]);
+			int j = pathChildren[d];
+			setChild(p, j, c);
+			if (splitPage != 0){
+				int right = splitPage;
+				splitPage = 0;
+				insertChild(p, j, splitKey, right);
+			}
+			c = p;
+		}
+		root = c;
+		if (splitPage != 0){				// grow a new root above the old one
+			int r = allocate();
+			setType(r, INNER);
+			setCount(r, 1);
+			setKey(r, 0, splitKey);
+			setChild(r, 0, root);
+			setChild(r, 1, splitPage);
+			root = r;
+		}
+		size++;
+		return true;
+	}
+
+	// inserts k at index i of leaf p, splitting it if full; returns the page now holding p's contents
+	private int insertInLeaf(int p, int i, long k){
+		p = writable(p);
+		int n = count(p);
+		if (n == LEAF_MAX){
+			long[] keys = new long[n + 1];
+			for (int j = 0; j < i; j++) keys[j] = key(p, j);
+			keys[i] = k;
+			for (int j = i; j < n; j++) keys[j + 1] = key(p, j);
+			int half = (n + 1) / 2;
+			storeLeaf(p, keys, 0, half);
+			splitPage = allocate();
+			storeLeaf(splitPage, keys, half, n + 1);
+			splitKey = keys[half];
+			return p;
+		}
+		for (int j = n; j > i; j--)
+			setKey(p, j, key(p, j - 1));
+		setKey(p, i, k);
+		setCount(p, n + 1);
+		return p;
+	}
+
+	// adds separator s and right child c after child j of inner page p, splitting p if full
+	private void insertChild(int p, int j, long s, int c){
+		int n = count(p);
+		long[] keys = new long[n + 1];
+		int[] children = new int[n + 2];
+		for (int i = 0; i < j; i++) keys[i] = key(p, i);
+		keys[j] = s;
+		for (int i = j; i < n; i++) keys[i + 1] = key(p, i);
+		for (int i = 0; i <= j; i++) children[i] = child(p, i);
+		children[j + 1] = c;
+		for (int i = j + 1; i <= n; i++) children[i + 1] = child(p, i);
+		if (n < INNER_MAX){
+			storeInner(p, keys, children, 0, n + 1);
+			return;
+		}
+		int mid = (n + 1) / 2;				// keys[mid] moves up to the parent
+		storeInner(p, keys, children, 0, mid);
+		splitPage = allocate();
+		storeInner(splitPage, keys, children, mid + 1, n + 1);
+		splitKey = keys[mid];
+	}
+
+	// writes keys[from, to) as the contents of leaf page p
+	private void storeLeaf(int p, long[] keys, int from, int to){
+		setType(p, LEAF);
+		setCount(p, to - from);
+		for (int i = from; i < to; i++)
+			setKey(p, i - from, keys[i]);
+	}
+
+	// writes keys[from, to) and children[from, to] as the contents of inner page p
+	private void storeInner(int p, long[] keys, int[] children, int from, int to){
+		setType(p, INNER);
+		setCount(p, to - from);
+		for (int i = from; i < to; i++)
+			setKey(p, i - from, keys[i]);
+		for (int i = from; i <= to; i++)
+			setChild(p, i - from, children[i]);
+	}
+
+	//---------------- deleting ----------------
+
+	/**
+	 * Deletes key k from the tree. The change is visible at once and durable after commit().
+	 * A single descent finds the leaf; pages are copied only if k is there.
+	 * @param k: key to be deleted
+	 * @return true if k was deleted, false if it was not in the tree
+	 */
+	public boolean delete(long k){
+		int leaf = descend(k);
+		int i = lowerBound(leaf, k);
+		if (i == count(leaf) || key(leaf, i) != k)
+			return false;
+		int c = writable(leaf);
+		int n = count(c);
+		for (int j = i; j < n - 1; j++)
+			setKey(c, j, key(c, j + 1));
+		setCount(c, n - 1);
+		for (int d = depth - 1; d >= 0; d--){		// copy the path upward, repairing underfull pages
+			int p = writable(pathPages[d]);
+			int j = pathChildren[d];
+			setChild(p, j, c);
+			if (count(c) < ((type(c) == LEAF) ? LEAF_MAX / 2 : INNER_MAX / 2))
+				repair(p, (j > 0) ? j - 1 : j);
+			c = p;
+		}
+		root = c;
+		if (type(root) == INNER && count(root) == 0){		// root with a single child shrinks
+			int old = root;
+			root = child(root, 0);
+			freePage(old);
+		}
+		size--;
+		return true;
+	}
+
+	/**
+	 * Repairs adjacent children j and j+1 of inner page p, one of which is underfull,
+	 * by merging them if they fit in one page and by evening out their keys otherwise.
+	 */
+	private void repair(int p, int j){
+		int a = writable(child(p, j));
+		int b = writable(child(p, j + 1));
+		setChild(p, j, a);
+		setChild(p, j + 1, b);
+		int na = count(a), nb = count(b);
+		if (type(a) == LEAF){
+			long[] keys = new long[na + nb];
+			for (int i = 0; i < na; i++) keys[i] = key(a, i);
+			for (int i = 0; i < nb; i++) keys[na + i] = key(b, i);
+			if (na + nb <= LEAF_MAX){
+				storeLeaf(a, keys, 0, na + nb);
+				removeChild(p, j);
+				freePage(b);
+				return;
+			}
+			int half = (na + nb) / 2;
+			storeLeaf(a, keys, 0, half);
+			storeLeaf(b, keys, half, na + nb);
+			setKey(p, j, keys[half]);
+			return;
+		}
+		// the sequence of a's keys, the separator and b's keys is split again
+		int total = na + 1 + nb;
+		long[] keys = new long[total];
+		int[] children = new int[total + 1];
+		for (int i = 0; i < na; i++) keys[i] = key(a, i);
+		keys[na] = key(p, j);
+		for (int i = 0; i < nb; i++) keys[na + 1 + i] = key(b, i);
+		for (int i = 0; i <= na; i++) children[i] = child(a, i);
+		for (int i = 0; i <= nb; i++) children[na + 1 + i] = child(b, i);
+		if (total <= INNER_MAX){
+			storeInner(a, keys, children, 0, total);
+			removeChild(p, j);
+			freePage(b);
+			return;
+		}
+		int mid = total / 2;
+		storeInner(a, keys, children, 0, mid);
+		storeInner(b, keys, children, mid + 1, total);
+		setKey(p, j, keys[mid]);
+	}
+
+	// removes key j and child j+1 from inner page p
+	private void removeChild(int p, int j){
+		int n = count(p);
+		for (int i = j; i < n - 1; i++)
+			setKey(p, i, key(p, i + 1));
+		for (int i = j + 1; i < n; i++)
+			setChild(p, i, child(p, i + 1));
+		setCount(p, n - 1);
+	}
+
+	//---------------- range scans ----------------
+
+	/**
+	 * Returns an iterator of the keys x with lo <= x <= hi, in increasing order.
+	 * The scan keeps the path from the root, so it moves between leaves without
+	 * searching again. The tree must not be modified while the iterator is in use.
+	 * @param lo: lower bound (inclusive)
+	 * @param hi: upper bound (inclusive)
+	 * @return iterator of the keys in the range
+	 */
+	public PrimitiveIterator.OfLong range(final long lo, final long hi){
+		return new PrimitiveIterator.OfLong(){
+			private final ArrayList<int[]> path = new ArrayList<>();	// {page, index} per level
+			private boolean done = lo > hi;
+			{
+				int p = root;
+				while (type(p) == INNER){
+					int j = upperBound(p, lo);
+					path.add(new int[]{p, j});
+					p = child(p, j);
+				}
+				path.add(new int[]{p, lowerBound(p, lo)});
+				settle();
+			}
+
+			// moves to the next leaf while the current one is used up, then checks hi
+			private void settle(){
+				int[] leaf = path.get(path.size() - 1);
+				while (!done && leaf[1] == count(leaf[0])){
+					int level = path.size() - 2;
+					while (level >= 0 && path.get(level)[1] == count(path.get(level)[0]))
+						level--;
+					if (level < 0){
+						done = true;
+						return;
+					}
+					path.get(level)[1]++;
+					for (int l = level; l < path.size() - 1; l++){		// leftmost descent
+						int[] step = path.get(l);
+						int[] below = path.get(l + 1);
+						below[0] = child(step[0], step[1]);
+						below[1] = 0;
+					}
+				}
+				if (!done && key(leaf[0], leaf[1]) > hi)
+					done = true;
+			}
+
+			public boolean hasNext() { return !done; }
+
+			public long nextLong(){
+				if (done) throw new NoSuchElementException("No next key");
+				int[] leaf = path.get(path.size() - 1);
+				long answer = key(leaf[0], leaf[1]++);
+				settle();
+				return answer;
+			}
+		};
+	}
+
+	/** Returns an iterator of all keys in increasing order. */
+	public PrimitiveIterator.OfLong iterator() { return range(Long.MIN_VALUE, Long.MAX_VALUE); }
+}
@@ -1,5 +1,8 @@
 import net.datastructures.*;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Random;
 
 // generic binary findNode tree
@@ -14,6 +17,56 @@ public class MyBST<E> extends LinkedBinaryTree<E> {
 	public int size() { return size; }
 	public boolean isEmpty() { return size() == 0; }
 
+	/**
+	 * Node of a MyBST. Records the number of nodes in its subtree, and carries
+	 * an auxiliary int that balanced subclasses use for their own bookkeeping
+	 * (node color, subtree height, ...).
+	 */
+	protected static class BSTNode<E> extends Node<E> {
+		private int aux = 0;
+		private int subtreeSize = 1;		// number of nodes in the subtree rooted here
+
+		public BSTNode(E e, Node<E> parent, Node<E> leftChild, Node<E> rightChild){
+			super(e, parent, leftChild, rightChild);
+		}
+
+		public int getAux() { return aux; }
+		public void setAux(int value) { aux = value; }
+		public int getSubtreeSize() { return subtreeSize; }
+		public void setSubtreeSize(int value) { subtreeSize = value; }
+	}
+
+	@Override
+	protected Node<E> createNode(E e, Node<E> parent, Node<E> left, Node<E> right){
+		return new BSTNode<>(e, parent, left, right);
+	}
+
+	protected int getAux(Position<E> p) { return ((BSTNode<E>) p).getAux(); }
+	protected void setAux(Position<E> p, int value) { ((BSTNode<E>) p).setAux(value); }
+
+	// number of nodes in the subtree rooted at n (0 if n is null)
+	protected int subtreeSize(Node<E> n) { return (n == null) ? 0 : ((BSTNode<E>) n).getSubtreeSize(); }
+
+	// subtree sizes are exact, so parallel operations can split where the work is
+	@Override
+	protected int estimateSubtreeSize(Node<E> n, int depth) { return subtreeSize(n); }
+
+	// recomputes the subtree size of n from its children
+	private void recomputeSubtreeSize(Node<E> n){
+		((BSTNode<E>) n).setSubtreeSize(1 + subtreeSize(n.getLeft()) + subtreeSize(n.getRight()));
+	}
+
+	// adds delta to the subtree size of n and of all its ancestors
+	private void adjustSubtreeSizes(Node<E> n, int delta){
+		for (; n != null; n = n.getParent()){
+			BSTNode<E> b = (BSTNode<E>) n;
+			b.setSubtreeSize(b.getSubtreeSize() + delta);
+		}
+	}
+
+	/** Compares two elements using this tree's comparator. */
+	protected int compare(E a, E b) { return comp.compare(a, b); }
+
 	/**
 	 * Adds new node to tree, or uses node as root of new tree
 	 * @param p: The position of the root of the tree (or subtree) to which a new node is added
@@ -25,36 +78,151 @@ public class MyBST<E> extends LinkedBinaryTree<E> {
 		if (p == null){		// this is an empty tree
 			addRoot(e);		// Creates root w/ element e, sets size to 1, returns new position
 			size++;
+			rebalanceInsert(root);
 			return root;
 		}
 
 		Node<E> child = validate(p);
 		Node<E> parent = child;		// parent will stay one step behind child as we traverse tree
+		int c = 0;					// result of the most recent comparison
 		while (child != null){										// loop breaks when it reaches a null position
-			if (child.getElement() == e)
+			c = comp.compare(child.getElement(), e);
+			if (c == 0)
 				return null;										// already an element in tree
-			else if (comp.compare(child.getElement(), e) > 0){		// if element of x > e
-				parent = child;
+			parent = child;
+			if (c > 0)												// if element of x > e
 				child = child.getLeft();							// x set to its left child
-			}
-			else{													// if element of x < e
-				parent = child;
+			else													// if element of x < e
 				child = child.getRight();							// x set to its right child
-			}
 		}	// end of while. y will be most recent non-null position
 
 		Node<E> temp = createNode(e, null, null, null);		// new node with element e
 		temp.setParent(parent);													// node's parent set to y
 
-		if (comp.compare(parent.getElement(), e) > 0)				// if temp < parent
+		if (c > 0)													// if temp < parent
 			parent.setLeft(temp);									// set parent's left child to temp
 		else
 			parent.setRight(temp);									// else set parent's right to temp
 
+		adjustSubtreeSizes(parent, 1);
 		size++;
+		rebalanceInsert(temp);
 		return temp;
 	}
 
+	/**
+	 * Builds a height-optimal tree from elements in strictly increasing order.
+	 * Runs in O(n) time by wiring node links directly.
+	 * @param sorted: elements in strictly increasing order
+	 * @param c: comparator defining the order
+	 * @return a new tree holding the elements
+	 * @throws IllegalArgumentException if the elements are not strictly increasing
+	 */
+	public static <E> MyBST<E> fromSorted(E[] sorted, Comparator<E> c){
+		MyBST<E> tree = new MyBST<>(c);
+		tree.loadSorted(sorted, sorted.length);
+		return tree;
+	}
+
+	public static <E> MyBST<E> fromSorted(E[] sorted){
+		return fromSorted(sorted, new DefaultComparator<E>());
+	}
+
+	/**
+	 * Builds a height-optimal tree from an iterable of elements in strictly increasing order.
+	 * @param sorted: elements in strictly increasing order
+	 * @param c: comparator defining the order
+	 * @return a new tree holding the elements
+	 * @throws IllegalArgumentException if the elements are not strictly increasing
+	 */
+	@SuppressWarnings({"unchecked"})
+	public static <E> MyBST<E> fromSorted(Iterable<E> sorted, Comparator<E> c){
+		java.util.ArrayList<E> buffer = new java.util.ArrayList<>();
+		for (E e : sorted)
+			buffer.add(e);
+		return fromSorted((E[]) buffer.toArray(), c);
+	}
+
+	public static <E> MyBST<E> fromSorted(Iterable<E> sorted){
+		return fromSorted(sorted, new DefaultComparator<E>());
+	}
+
+	/**
+	 * Builds a height-optimal tree from elements in any order. The elements
+	 * are sorted in parallel and duplicates are dropped before building.
+	 * The given array is not modified.
+	 * @param elements: elements to be stored
+	 * @param c: comparator defining the order
+	 * @return a new tree holding the distinct elements
+	 */
+	public static <E> MyBST<E> fromUnsorted(E[] elements, Comparator<E> c){
+		E[] sorted = elements.clone();
+		Arrays.parallelSort(sorted, c);
+		int n = 0;								// number of distinct elements kept
+		for (int i = 0; i < sorted.length; i++)
+			if (n == 0 || c.compare(sorted[n - 1], sorted[i]) != 0)
+				sorted[n++] = sorted[i];
+		MyBST<E> tree = new MyBST<>(c);
+		tree.loadSorted(sorted, n);
+		return tree;
+	}
+
+	public static <E> MyBST<E> fromUnsorted(E[] elements){
+		return fromUnsorted(elements, new DefaultComparator<E>());
+	}
+
+	/**
+	 * Fills this empty tree with the first n elements of sorted, which must
+	 * be strictly increasing. Each subtree root is the middle element of its
+	 * range, so the tree has height floor(log2 n).
+	 * @param sorted: elements in strictly increasing order
+	 * @param n: number of elements of sorted to use
+	 * @throws IllegalStateException if the tree is not empty
+	 * @throws IllegalArgumentException if the elements are not strictly increasing
+	 */
+	protected void loadSorted(E[] sorted, int n){
+		if (!isEmpty()) throw new IllegalStateException("Tree is not empty");
+		for (int i = 1; i < n; i++)
+			if (comp.compare(sorted[i - 1], sorted[i]) >= 0)
+				throw new IllegalArgumentException("Elements are not strictly increasing at index " + i);
+		if (n == 0)
+			return;
+		int maxDepth = 31 - Integer.numberOfLeadingZeros(n);		// floor(log2 n)
+		root = buildSubtree(sorted, 0, n - 1, null, 0, maxDepth);
+		size = n;
+	}
+
+	// links the elements sorted[lo..hi] into a subtree and returns its root
+	private Node<E> buildSubtree(E[] sorted, int lo, int hi, Node<E> parent, int depth, int maxDepth){
+		if (lo > hi)
+			return null;
+		int mid = (lo + hi) >>> 1;
+		Node<E> n = createNode(sorted[mid], parent, null, null);
+		n.setLeft(buildSubtree(sorted, lo, mid - 1, n, depth + 1, maxDepth));
+		n.setRight(buildSubtree(sorted, mid + 1, hi, n, depth + 1, maxDepth));
+		recomputeSubtreeSize(n);
+		initLoadedNode(n, depth, maxDepth);
+		return n;
+	}
+
+	/**
+	 * Hook called by loadSorted for every node, after both of its subtrees
+	 * have been built. Does nothing for an unbalanced tree.
+	 * @param n: the node just built
+	 * @param depth: depth of n in the new tree
+	 * @param maxDepth: depth of the deepest node in the new tree
+	 */
+	protected void initLoadedNode(Node<E> n, int depth, int maxDepth){ }
+
+	/**
+	 * Returns an immutable, array-based copy of this tree laid out for
+	 * cache-friendly lookups. Later changes to this tree do not affect it.
+	 * @return frozen copy of the tree
+	 */
+	public FrozenBST<E> freeze(){
+		return new FrozenBST<>(this, comp);
+	}
+
 	// print a binary tree horizontally using indentation
 	public void print(Position<E> p, int depth){
 
@@ -111,7 +279,7 @@ public class MyBST<E> extends LinkedBinaryTree<E> {
 	 * @param p: Position of the node whose successor is searched
 	 * @return successorPosition: Position of successor of p (if none, return null)
 	 */
-	private Position<E> successor(Position<E> p){
+	protected Position<E> successor(Position<E> p){
 		Node<E> n = validate(p);
 		if (n.getRight() != null)				// if right child exists
 			return treeMinimum(n.getRight());	// return node w/ min value in right child subtree
@@ -132,7 +300,7 @@ public class MyBST<E> extends LinkedBinaryTree<E> {
 	 * @param p: Position of node whose predecessor is searched
 	 * @return predPosition: Position of p's predecessor (if none, return null)
 	 */
-	private Position<E> predecessor(Position<E> p){
+	protected Position<E> predecessor(Position<E> p){
 		Node<E> n = validate(p);
 		if (n.getLeft() != null)				// if left child exists
 			return treeMaximum(n.getLeft());	// return nod w/ max value in left child subtree
@@ -160,10 +328,19 @@ public class MyBST<E> extends LinkedBinaryTree<E> {
 	    if (foundPosition == null)
 	        return null;
 
-		Node<E> toBeDeleted = validate(foundPosition);		// toBeDeleted set to position w/ element e
+		return deleteNode(validate(foundPosition));
+	}
+
+	/**
+	 * Deletes node toBeDeleted from the tree. If it has two children, its element
+	 * is swapped with that of its predecessor, whose node is removed instead.
+	 * @param toBeDeleted: Node to be deleted
+	 * @return element of the deleted node
+	 */
+	protected E deleteNode(Node<E> toBeDeleted){
 
 		if (numChildren(toBeDeleted) <= 1)		// if number of children is 0 or 1
-			return remove(toBeDeleted);			// remove node and return its element
+			return removeNode(toBeDeleted);		// remove node and return its element
 
 		// get predecessor node of toBeDeleted
 		Node<E> predecessorNode = validate(predecessor(toBeDeleted));
@@ -174,7 +351,222 @@ public class MyBST<E> extends LinkedBinaryTree<E> {
 		predecessorNode.setElement(tempElement);
 
 		// remove predecessor (with former toBeDeleted value), return its element
-		return remove(predecessorNode);
+		return removeNode(predecessorNode);
+	}
+
+	/**
+	 * Counts reported by a batched update: how many elements of the batch
+	 * changed the tree, and how many were skipped.
+	 */
+	public static class BatchResult {
+		private final int applied;
+		private final int skipped;
+
+		public BatchResult(int applied, int skipped){
+			this.applied = applied;
+			this.skipped = skipped;
+		}
+
+		/** Number of elements inserted (addAll) or deleted (deleteAll). */
+		public int applied() { return applied; }
+
+		/** Number of duplicates (addAll) or elements not found (deleteAll). */
+		public int skipped() { return skipped; }
+
+		public String toString() { return "applied: " + applied + ", skipped: " + skipped; }
+	}
+
+	// returns a sorted copy of batch
+	private E[] sortedCopy(E[] batch){
+		E[] sorted = batch.clone();
+		Arrays.sort(sorted, comp);
+		return sorted;
+	}
+
+	/**
+	 * Adds every element of batch to the tree. The batch is sorted first; each
+	 * element is then inserted starting from the node added just before it,
+	 * climbing only as far as needed instead of descending from the root.
+	 * Balanced subclasses rebalance after each insertion as usual.
+	 * @param batch: elements to be added (the array is not modified)
+	 * @return number of elements inserted, and of duplicates (within the tree or the batch)
+	 */
+	public BatchResult addAll(E[] batch){
+		E[] sorted = sortedCopy(batch);
+		int inserted = 0;
+		Node<E> finger = null;			// most recently added node; its element is below the next key
+		for (E e : sorted){
+			Node<E> start;
+			if (finger == null)
+				start = root;
+			else{
+				// climb until e falls below the upper bound of start's subtree
+				start = finger;
+				Node<E> parent = start.getParent();
+				while (parent != null && !(start == parent.getLeft() && comp.compare(parent.getElement(), e) > 0)){
+					start = parent;
+					parent = start.getParent();
+				}
+			}
+			Position<E> added = add(start, e);
+			if (added != null){
+				inserted++;
+				finger = validate(added);
+			}
+		}
+		return new BatchResult(inserted, sorted.length - inserted);
+	}
+
+	/**
+	 * Deletes every element of batch from the tree. The batch is sorted, and a
+	 * single merge-style descent locates all of its elements: at each node the
+	 * remaining keys are split by binary search between the two subtrees. The
+	 * located nodes are then deleted in increasing order, which keeps the nodes
+	 * not yet deleted valid.
+	 * @param batch: elements to be deleted (the array is not modified)
+	 * @return number of elements deleted, and of elements not found
+	 */
+	public BatchResult deleteAll(E[] batch){
+		E[] sorted = sortedCopy(batch);
+		java.util.ArrayList<Node<E>> found = new java.util.ArrayList<>();
+
+		// explicit stack of pending work, so degenerate trees cannot overflow the call stack;
+		// a frame with hi == VISIT reports its node instead of exploring it
+		final int VISIT = -2;
+		java.util.ArrayDeque<Node<E>> nodes = new java.util.ArrayDeque<>();
+		java.util.ArrayDeque<Integer> los = new java.util.ArrayDeque<>();
+		java.util.ArrayDeque<Integer> his = new java.util.ArrayDeque<>();
+		if (root != null && sorted.length > 0){
+			nodes.push(root);
+			los.push(0);
+			his.push(sorted.length - 1);
+		}
+		while (!nodes.isEmpty()){
+			Node<E> n = nodes.pop();
+			int lo = los.pop(), hi = his.pop();
+			if (hi == VISIT){
+				found.add(n);
+				continue;
+			}
+			int a = lo, b = hi + 1;				// find the first key >= n's element
+			while (a < b){
+				int mid = (a + b) >>> 1;
+				if (comp.compare(sorted[mid], n.getElement()) < 0) a = mid + 1;
+				else b = mid;
+			}
+			int next = a;
+			while (next <= hi && comp.compare(sorted[next], n.getElement()) == 0)
+				next++;							// skip keys equal to n's element
+			// pushed in reverse, so the left subtree is handled first and found stays sorted
+			if (n.getRight() != null && next <= hi){
+				nodes.push(n.getRight());
+				los.push(next);
+				his.push(hi);
+			}
+			if (next > a){
+				nodes.push(n);
+				los.push(0);
+				his.push(VISIT);
+			}
+			if (n.getLeft() != null && lo < a){
+				nodes.push(n.getLeft());
+				los.push(lo);
+				his.push(a - 1);
+			}
+		}
+
+		for (Node<E> n : found)
+			deleteNode(n);
+		return new BatchResult(found.size(), sorted.length - found.size());
+	}
+
+	/**
+	 * Splices out node n (which has at most one child) and lets subclasses
+	 * repair the tree around the spot where it was removed.
+	 * @param n: Node to be removed; must have 0 or 1 children
+	 * @return element of the removed node
+	 */
+	protected E removeNode(Node<E> n){
+		Node<E> parent = n.getParent();
+		Node<E> child = (n.getLeft() != null) ? n.getLeft() : n.getRight();
+		E removed = remove(n);
+		adjustSubtreeSizes(parent, -1);
+		size--;
+		rebalanceDelete(n, child, parent);
+		return removed;
+	}
+
+	/**
+	 * Hook called after node n has been linked into the tree by add.
+	 * Does nothing for an unbalanced tree.
+	 * @param n: the newly added node
+	 */
+	protected void rebalanceInsert(Node<E> n){ }
+
+	/**
+	 * Hook called after a node has been spliced out of the tree by delete.
+	 * Does nothing for an unbalanced tree.
+	 * @param removed: the (now defunct) node that was removed
+	 * @param child: the child that took its place (possibly null)
+	 * @param parent: the former parent of removed (null if it was the root)
+	 */
+	protected void rebalanceDelete(Node<E> removed, Node<E> child, Node<E> parent){ }
+
+	/**
+	 * Rotates node x above its parent, preserving the inorder sequence.
+	 * The subtree that switches sides is the one between x and its parent.
+	 * @param x: Node to be rotated up; must not be the root
+	 */
+	protected void rotate(Node<E> x){
+		Node<E> y = x.getParent();		// we assume this exists
+		Node<E> z = y.getParent();		// grandparent (possibly null)
+		if (z == null){
+			root = x;					// x becomes root of the tree
+			x.setParent(null);
+		}
+		else
+			relink(z, x, y == z.getLeft());		// x becomes direct child of z
+
+		// now rotate x and y, including transfer of middle subtree
+		if (x == y.getLeft()){
+			relink(y, x.getRight(), true);		// x's right child becomes y's left
+			relink(x, y, false);				// y becomes x's right child
+		}
+		else{
+			relink(y, x.getLeft(), false);		// x's left child becomes y's right
+			relink(x, y, true);					// y becomes left child of x
+		}
+		recomputeSubtreeSize(y);				// y is now below x
+		recomputeSubtreeSize(x);
+	}
+
+	/**
+	 * Performs a trinode restructuring of node x with its parent and grandparent.
+	 * @param x: Node whose parent and grandparent both exist
+	 * @return the node that becomes the root of the restructured subtree
+	 */
+	protected Node<E> restructure(Node<E> x){
+		Node<E> y = x.getParent();
+		Node<E> z = y.getParent();
+		if ((x == y.getRight()) == (y == z.getRight())){	// matching alignments
+			rotate(y);										// single rotation (of y)
+			return y;										// y is new subtree root
+		}
+		else{												// opposite alignments
+			rotate(x);										// double rotation (of x)
+			rotate(x);
+			return x;										// x is new subtree root
+		}
+	}
+
+	// links child (possibly null) as the left or right child of parent
+	private void relink(Node<E> parent, Node<E> child, boolean makeLeftChild){
+		if (child != null)
+			child.setParent(parent);
+		if (makeLeftChild)
+			parent.setLeft(child);
+		else
+			parent.setRight(child);
 	}
 
 	/**
@@ -183,7 +575,7 @@ public class MyBST<E> extends LinkedBinaryTree<E> {
 	 * @param e: element for which you are searching
 	 * @return Node n with element e, or null:
 	 */
-	private Position<E> findNode(Position<E> root, E e){
+	protected Position<E> findNode(Position<E> root, E e){
 		Node<E> n = validate(root);		// n starts as root of tree or subtree to be searched
 		while (n != null){
 			if (comp.compare(n.getElement(), e) == 0){return n;}	// Position found
@@ -194,12 +586,157 @@ public class MyBST<E> extends LinkedBinaryTree<E> {
 	}
 
 
+	/**
+	 * Returns the rank of e: the number of elements in the tree smaller than e.
+	 * e itself does not need to be in the tree. Runs in O(height) time.
+	 * @param e: element whose rank is computed
+	 * @return number of elements smaller than e
+	 */
+	public int rank(E e){
+		return countBelow(e, false);
+	}
+
+	/**
+	 * Returns the element of rank k, i.e. the (k+1)-th smallest element.
+	 * Runs in O(height) time.
+	 * @param k: rank of the element, from 0 to size()-1
+	 * @return element with exactly k smaller elements in the tree
+	 * @throws IndexOutOfBoundsException if k is negative or not less than size()
+	 */
+	public E select(int k) throws IndexOutOfBoundsException {
+		if (k < 0 || k >= size)
+			throw new IndexOutOfBoundsException("Illegal rank: " + k);
+		Node<E> n = root;
+		while (true){
+			int leftSize = subtreeSize(n.getLeft());
+			if (k < leftSize)
+				n = n.getLeft();
+			else if (k == leftSize)
+				return n.getElement();
+			else{
+				k -= leftSize + 1;				// skip the left subtree and n itself
+				n = n.getRight();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of elements x in the tree with lo <= x <= hi.
+	 * Runs in O(height) time.
+	 * @param lo: lower bound (inclusive)
+	 * @param hi: upper bound (inclusive)
+	 * @return number of elements in the range (0 if lo > hi)
+	 */
+	public int countInRange(E lo, E hi){
+		if (comp.compare(lo, hi) > 0)
+			return 0;
+		return countBelow(hi, true) - countBelow(lo, false);
+	}
+
+	/**
+	 * Returns a lazy iterator over the elements x with lo <= x <= hi, in order.
+	 * Finding the first element takes O(height) time; each further element is
+	 * reached through successor, and no snapshot of the tree is made. The tree
+	 * must not be modified while the iterator is in use.
+	 * @param lo: lower bound (inclusive)
+	 * @param hi: upper bound (inclusive)
+	 * @return iterator of the elements in the range
+	 */
+	public Iterator<E> range(E lo, E hi){
+		return new RangeIterator(ceilingNode(lo, true), hi, true);
+	}
+
+	/**
+	 * Returns a lazy iterator over the elements smaller than hi, in order.
+	 * @param hi: upper bound (exclusive)
+	 * @return iterator of the elements below hi
+	 */
+	public Iterator<E> headSet(E hi){
+		Node<E> first = (root == null) ? null : validate(treeMinimum(root));
+		return new RangeIterator(first, hi, false);
+	}
+
+	/**
+	 * Returns a lazy iterator over the elements not smaller than lo, in order.
+	 * @param lo: lower bound (inclusive)
+	 * @return iterator of the elements from lo upward
+	 */
+	public Iterator<E> tailSet(E lo){
+		return new RangeIterator(ceilingNode(lo, true), null, false);
+	}
+
+	/**
+	 * Returns the node with the smallest element that is larger than e
+	 * (or equal to e, if inclusive), or null if there is none.
+	 */
+	protected Node<E> ceilingNode(E e, boolean inclusive){
+		Node<E> found = null;
+		Node<E> n = root;
+		while (n != null){
+			int c = comp.compare(n.getElement(), e);
+			if (c > 0 || (c == 0 && inclusive)){
+				found = n;					// candidate; look for a smaller one on the left
+				n = n.getLeft();
+			}
+			else
+				n = n.getRight();
+		}
+		return found;
+	}
+
+	//---------------- nested RangeIterator class ----------------
+	/* Walks from a first node through successors until the upper bound is passed. */
+	private class RangeIterator implements Iterator<E> {
+		private Node<E> next;				// node to report next (null when done)
+		private final E hi;					// upper bound (null for none)
+		private final boolean hiInclusive;
+
+		RangeIterator(Node<E> first, E hi, boolean hiInclusive){
+			this.hi = hi;
+			this.hiInclusive = hiInclusive;
+			next = inRange(first) ? first : null;
+		}
+
+		private boolean inRange(Node<E> n){
+			if (n == null) return false;
+			if (hi == null) return true;
+			int c = comp.compare(n.getElement(), hi);
+			return c < 0 || (c == 0 && hiInclusive);
+		}
+
+		public boolean hasNext() { return next != null; }
+
+		public E next() throws NoSuchElementException {
+			if (next == null) throw new NoSuchElementException("No next element");
+			E answer = next.getElement();
+			Node<E> after = (Node<E>) successor(next);
+			next = inRange(after) ? after : null;
+			return answer;
+		}
+	} //------------ end of nested RangeIterator class ------------
+
+	// counts elements smaller than e (or not larger than e, if inclusive)
+	private int countBelow(E e, boolean inclusive){
+		int count = 0;
+		Node<E> n = root;
+		while (n != null){
+			int c = comp.compare(n.getElement(), e);
+			if (c < 0 || (c == 0 && inclusive)){
+				count += subtreeSize(n.getLeft()) + 1;		// n and its left subtree are below e
+				n = n.getRight();
+			}
+			else
+				n = n.getLeft();
+		}
+		return count;
+	}
+
 	/**
 	 * Finds node w/ maximum value in tree/subtree with root p
 	 * @param p: root of tree or subtree
 	 * @return n: the node with tree's maximum value
 	 */
-	private Position<E> treeMaximum(Position<E> p){
+	protected Position<E> treeMaximum(Position<E> p){
 		Node<E> n = validate(p);
 		while (n.getRight() != null)
 			n = n.getRight();
@@ -211,7 +748,7 @@ public class MyBST<E> extends LinkedBinaryTree<E> {
 	 * @param p: root of tree or subtree
 	 * @return n: the node with tree's minimum value
 	 */
-	private Position<E> treeMinimum(Position<E> p){
+	protected Position<E> treeMinimum(Position<E> p){
 		Node<E> n = validate(p);
 		while (n.getLeft() != null)
 			n = n.getLeft();
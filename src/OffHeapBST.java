@@ -0,0 +1,405 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+// red-black binary search tree of long keys whose nodes live off the Java heap.
+// Each node is a fixed-width record in a direct ByteBuffer; nodes are named by int index.
+public class OffHeapBST {
+
+	/** Index of the sentinel node; returned whenever there is no such node. */
+	public static final int NIL = 0;
+
+	// record layout: key, left, right, parent, color
+	private static final int KEY = 0;
+	private static final int LEFT = 8;
+	private static final int RIGHT = 12;
+	private static final int PARENT = 16;
+	private static final int COLOR = 20;
+	private static final int RECORD_SIZE = 24;
+
+	private static final int BLACK = 0;
+	private static final int RED = 1;
+
+	// records are allocated in direct buffers of 2^CHUNK_BITS records each
+	private static final int CHUNK_BITS = 18;
+	private static final int CHUNK_RECORDS = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_RECORDS - 1;
+
+	private ByteBuffer[] chunks = new ByteBuffer[16];	// the only heap state that grows
+	private int chunkCount = 0;
+
+	private int root = NIL;
+	private int size = 0;
+	private int used = 1;		// records [1, used) have been handed out at least once
+	private int free = NIL;		// head of the free-list of deleted records, chained through left
+
+	public OffHeapBST(){
+		addChunk();				// record 0 is the black sentinel
+	}
+
+	public int size() { return size; }
+	public boolean isEmpty() { return size == 0; }
+
+	// allocates one more direct buffer of records
+	private void addChunk(){
+		if (chunkCount == chunks.length)
+			chunks = Arrays.copyOf(chunks, 2 * chunks.length);
+		chunks[chunkCount++] = ByteBuffer.allocateDirect(CHUNK_RECORDS * RECORD_SIZE)
+				.order(ByteOrder.nativeOrder());
+	}
+
+	// field accessors for record n
+	private ByteBuffer chunk(int n) { return chunks[n >>> CHUNK_BITS]; }
+	private int offset(int n) { return (n & CHUNK_MASK) * RECORD_SIZE; }
+
+	/**
+	 * Returns the key stored in node n.
+	 * @param n: a node of this tree (not NIL)
+	 * @return the key of n
+	 */
+	public long key(int n) { return chunk(n).getLong(offset(n) + KEY); }
+	private int left(int n) { return chunk(n).getInt(offset(n) + LEFT); }
+	private int right(int n) { return chunk(n).getInt(offset(n) + RIGHT); }
+	private int parent(int n) { return chunk(n).getInt(offset(n) + PARENT); }
+	private int color(int n) { return chunk(n).getInt(offset(n) + COLOR); }
+
+	private void setKey(int n, long k) { chunk(n).putLong(offset(n) + KEY, k); }
+	private void setLeft(int n, int child) { chunk(n).putInt(offset(n) + LEFT, child); }
+	private void setRight(int n, int child) { chunk(n).putInt(offset(n) + RIGHT, child); }
+	private void setParent(int n, int p) { chunk(n).putInt(offset(n) + PARENT, p); }
+	private void setColor(int n, int c) { chunk(n).putInt(offset(n) + COLOR, c); }
+
+	/**
+	 * Returns a fresh record, reusing a deleted one if possible.
+	 * @return index of the new record
+	 */
+	private int newNode(){
+		if (free != NIL){
+			int n = free;
+			free = left(n);
+			return n;
+		}
+		if (used == Integer.MAX_VALUE)
+			throw new IllegalStateException("Tree is full");
+		if ((used >>> CHUNK_BITS) == chunkCount)
+			addChunk();
+		return used++;
+	}
+
+	// returns record n to the free-list
+	private void freeNode(int n){
+		setLeft(n, free);
+		free = n;
+	}
+
+	/**
+	 * Adds a node with key k to the tree.
+	 * @param k: key to be added
+	 * @return the new node, or NIL if k is already in the tree
+	 */
+	public int add(long k){
+		int y = NIL;
+		int x = root;
+		while (x != NIL){				// y stays one step behind x
+			y = x;
+			long xk = key(x);
+			if (k < xk) x = left(x);
+			else if (k > xk) x = right(x);
+			else return NIL;			// already in tree
+		}
+
+		int z = newNode();
+		setKey(z, k);
+		setLeft(z, NIL);
+		setRight(z, NIL);
+		setParent(z, y);
+		setColor(z, RED);
+		if (y == NIL)
+			root = z;
+		else if (k < key(y))
+			setLeft(y, z);
+		else
+			setRight(y, z);
+		size++;
+		insertFixup(z);
+		return z;
+	}
+
+	// removes a possible double red at z
+	private void insertFixup(int z){
+		while (color(parent(z)) == RED){
+			int p = parent(z);
+			int g = parent(p);
+			if (p == left(g)){
+				int uncle = right(g);
+				if (color(uncle) == RED){		// recolor and move up
+					setColor(p, BLACK);
+					setColor(uncle, BLACK);
+					setColor(g, RED);
+					z = g;
+				}
+				else{
+					if (z == right(p)){
+						z = p;
+						rotateLeft(z);
+						p = parent(z);
+					}
+					setColor(p, BLACK);
+					setColor(g, RED);
+					rotateRight(g);
+				}
+			}
+			else{								// mirror image of the above
+				int uncle = left(g);
+				if (color(uncle) == RED){
+					setColor(p, BLACK);
+					setColor(uncle, BLACK);
+					setColor(g, RED);
+					z = g;
+				}
+				else{
+					if (z == left(p)){
+						z = p;
+						rotateRight(z);
+						p = parent(z);
+					}
+					setColor(p, BLACK);
+					setColor(g, RED);
+					rotateLeft(g);
+				}
+			}
+		}
+		setColor(root, BLACK);
+	}
+
+	/**
+	 * Deletes the node with key k from the tree.
+	 * @param k: key to be deleted
+	 * @return true if a node was deleted, false if k was not in the tree
+	 */
+	public boolean delete(long k){
+		int z = findNode(k);
+		if (z == NIL)
+			return false;
+
+		int y = z;
+		int yColor = color(y);
+		int x;
+		if (left(z) == NIL){
+			x = right(z);
+			transplant(z, x);
+		}
+		else if (right(z) == NIL){
+			x = left(z);
+			transplant(z, x);
+		}
+		else{
+			y = treeMinimum(right(z));		// successor of z takes its place
+			yColor = color(y);
+			x = right(y);
+			if (parent(y) == z)
+				setParent(x, y);			// x may be the sentinel
+			else{
+				transplant(y, x);
+				setRight(y, right(z));
+				setParent(right(y), y);
+			}
+			transplant(z, y);
+			setLeft(y, left(z));
+			setParent(left(y), y);
+			setColor(y, color(z));
+		}
+		freeNode(z);
+		size--;
+		if (yColor == BLACK)
+			deleteFixup(x);
+		return true;
+	}
+
+	// replaces the subtree rooted at u with the one rooted at v
+	private void transplant(int u, int v){
+		int p = parent(u);
+		if (p == NIL)
+			root = v;
+		else if (u == left(p))
+			setLeft(p, v);
+		else
+			setRight(p, v);
+		setParent(v, p);
+	}
+
+	// removes the extra black carried by x
+	private void deleteFixup(int x){
+		while (x != root && color(x) == BLACK){
+			int p = parent(x);
+			if (x == left(p)){
+				int w = right(p);
+				if (color(w) == RED){
+					setColor(w, BLACK);
+					setColor(p, RED);
+					rotateLeft(p);
+					w = right(p);
+				}
+				if (color(left(w)) == BLACK && color(right(w)) == BLACK){
+					setColor(w, RED);
+					x = p;
+				}
+				else{
+					if (color(right(w)) == BLACK){
+						setColor(left(w), BLACK);
+						setColor(w, RED);
+						rotateRight(w);
+						w = right(p);
+					}
+					setColor(w, color(p));
+					setColor(p, BLACK);
+					setColor(right(w), BLACK);
+					rotateLeft(p);
+					x = root;
+				}
+			}
+			else{								// mirror image of the above
+				int w = left(p);
+				if (color(w) == RED){
+					setColor(w, BLACK);
+					setColor(p, RED);
+					rotateRight(p);
+					w = left(p);
+				}
+				if (color(right(w)) == BLACK && color(left(w)) == BLACK){
+					setColor(w, RED);
+					x = p;
+				}
+				else{
+					if (color(left(w)) == BLACK){
+						setColor(right(w), BLACK);
+						setColor(w, RED);
+						rotateLeft(w);
+						w = left(p);
+					}
+					setColor(w, color(p));
+					setColor(p, BLACK);
+					setColor(left(w), BLACK);
+					rotateRight(p);
+					x = root;
+				}
+			}
+		}
+		setColor(x, BLACK);
+	}
+
+	// rotates the right child of x above x
+	private void rotateLeft(int x){
+		int y = right(x);
+		setRight(x, left(y));
+		if (left(y) != NIL)
+			setParent(left(y), x);
+		replaceChild(x, y);
+		setLeft(y, x);
+		setParent(x, y);
+	}
+
+	// rotates the left child of x above x
+	private void rotateRight(int x){
+		int y = left(x);
+		setLeft(x, right(y));
+		if (right(y) != NIL)
+			setParent(right(y), x);
+		replaceChild(x, y);
+		setRight(y, x);
+		setParent(x, y);
+	}
+
+	// links y in the place of x under x's parent
+	private void replaceChild(int x, int y){
+		int p = parent(x);
+		setParent(y, p);
+		if (p == NIL)
+			root = y;
+		else if (x == left(p))
+			setLeft(p, y);
+		else
+			setRight(p, y);
+	}
+
+	/**
+	 * Searches the tree for the node with key k.
+	 * @param k: key for which you are searching
+	 * @return node with key k, or NIL
+	 */
+	public int findNode(long k){
+		int n = root;
+		while (n != NIL){
+			long nk = key(n);
+			if (k < nk) n = left(n);
+			else if (k > nk) n = right(n);
+			else return n;
+		}
+		return NIL;
+	}
+
+	/**
+	 * Tests whether key k is in the tree.
+	 * @param k: key for which you are searching
+	 * @return true if k is in the tree
+	 */
+	public boolean contains(long k) { return findNode(k) != NIL; }
+
+	/**
+	 * Returns the node holding the smallest key larger than the key of n.
+	 * @param n: node whose successor is searched
+	 * @return successor of n (NIL if none)
+	 */
+	public int successor(int n){
+		if (right(n) != NIL)
+			return treeMinimum(right(n));
+		int y = parent(n);
+		while (y != NIL && n == right(y)){
+			n = y;
+			y = parent(y);
+		}
+		return y;
+	}
+
+	/**
+	 * Returns the node holding the largest key smaller than the key of n.
+	 * @param n: node whose predecessor is searched
+	 * @return predecessor of n (NIL if none)
+	 */
+	public int predecessor(int n){
+		if (left(n) != NIL)
+			return treeMaximum(left(n));
+		int y = parent(n);
+		while (y != NIL && n == left(y)){
+			n = y;
+			y = parent(y);
+		}
+		return y;
+	}
+
+	/**
+	 * Returns the node with the smallest key in the subtree rooted at n.
+	 * @param n: root of the subtree (NIL for the whole tree)
+	 * @return node with minimum key (NIL if the tree is empty)
+	 */
+	public int treeMinimum(int n){
+		if (n == NIL) n = root;
+		if (n == NIL) return NIL;
+		while (left(n) != NIL)
+			n = left(n);
+		return n;
+	}
+
+	/**
+	 * Returns the node with the largest key in the subtree rooted at n.
+	 * @param n: root of the subtree (NIL for the whole tree)
+	 * @return node with maximum key (NIL if the tree is empty)
+	 */
+	public int treeMaximum(int n){
+		if (n == NIL) n = root;
+		if (n == NIL) return NIL;
+		while (right(n) != NIL)
+			n = right(n);
+		return n;
+	}
+}
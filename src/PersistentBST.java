@@ -0,0 +1,246 @@
+import net.datastructures.*;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// persistent (path-copying) AVL tree. Every update builds a new version that shares
+// all untouched subtrees with the old one, so taking a snapshot costs O(1).
+public class PersistentBST<E> {
+
+	/** Immutable node; all fields are final, so a published node is never seen half-built. */
+	private static final class Node<E> {
+		final E element;
+		final Node<E> left;
+		final Node<E> right;
+		final int height;			// height of the subtree, counting this node
+		final int size;				// number of nodes in the subtree
+
+		Node(E e, Node<E> leftChild, Node<E> rightChild){
+			element = e;
+			left = leftChild;
+			right = rightChild;
+			height = 1 + Math.max(heightOf(leftChild), heightOf(rightChild));
+			size = 1 + sizeOf(leftChild) + sizeOf(rightChild);
+		}
+	}
+
+	private static int heightOf(Node<?> n) { return (n == null) ? 0 : n.height; }
+	private static int sizeOf(Node<?> n) { return (n == null) ? 0 : n.size; }
+
+	/**
+	 * Builds a node for e over subtrees l and r, whose heights differ by at most 2,
+	 * applying a single or double rotation if the AVL property requires it.
+	 */
+	private static <E> Node<E> balance(E e, Node<E> l, Node<E> r){
+		int hl = heightOf(l), hr = heightOf(r);
+		if (hl > hr + 1){
+			if (heightOf(l.left) >= heightOf(l.right))			// single rotation
+				return new Node<>(l.element, l.left, new Node<>(e, l.right, r));
+			Node<E> lr = l.right;								// double rotation
+			return new Node<>(lr.element, new Node<>(l.element, l.left, lr.left), new Node<>(e, lr.right, r));
+		}
+		if (hr > hl + 1){
+			if (heightOf(r.right) >= heightOf(r.left))
+				return new Node<>(r.element, new Node<>(e, l, r.left), r.right);
+			Node<E> rl = r.left;
+			return new Node<>(rl.element, new Node<>(e, l, rl.left), new Node<>(r.element, rl.right, r.right));
+		}
+		return new Node<>(e, l, r);
+	}
+
+	//---------------- nested Version class ----------------
+	/**
+	 * One immutable version of the tree. Reading a version needs no locks,
+	 * and add/delete return a new version while leaving this one intact.
+	 */
+	public static final class Version<E> implements Iterable<E> {
+		private final Comparator<E> comp;
+		private final Node<E> root;
+
+		private Version(Comparator<E> c, Node<E> r){
+			comp = c;
+			root = r;
+		}
+
+		public int size() { return sizeOf(root); }
+		public boolean isEmpty() { return root == null; }
+
+		/**
+		 * Returns a version that also contains e. Only the search path is copied.
+		 * @param e: element to be added
+		 * @return the new version (this version if e was already present)
+		 */
+		public Version<E> add(E e){
+			Node<E> r = insert(root, e);
+			return (r == root) ? this : new Version<>(comp, r);
+		}
+
+		/**
+		 * Returns a version without e. Only the search path is copied.
+		 * @param e: element to be deleted
+		 * @return the new version (this version if e was not present)
+		 */
+		public Version<E> delete(E e){
+			Node<E> r = remove(root, e);
+			return (r == root) ? this : new Version<>(comp, r);
+		}
+
+		private Node<E> insert(Node<E> n, E e){
+			if (n == null)
+				return new Node<>(e, null, null);
+			int c = comp.compare(e, n.element);
+			if (c == 0)
+				return n;									// already present
+			if (c < 0){
+				Node<E> l = insert(n.left, e);
+				return (l == n.left) ? n : balance(n.element, l, n.right);
+			}
+			Node<E> r = insert(n.right, e);
+			return (r == n.right) ? n : balance(n.element, n.left, r);
+		}
+
+		private Node<E> remove(Node<E> n, E e){
+			if (n == null)
+				return null;								// not present
+			int c = comp.compare(e, n.element);
+			if (c < 0){
+				Node<E> l = remove(n.left, e);
+				return (l == n.left) ? n : balance(n.element, l, n.right);
+			}
+			if (c > 0){
+				Node<E> r = remove(n.right, e);
+				return (r == n.right) ? n : balance(n.element, n.left, r);
+			}
+			if (n.left == null) return n.right;
+			if (n.right == null) return n.left;
+			Node<E> successor = n.right;					// replace n by its successor
+			while (successor.left != null)
+				successor = successor.left;
+			return balance(successor.element, n.left, removeMin(n.right));
+		}
+
+		private Node<E> removeMin(Node<E> n){
+			if (n.left == null)
+				return n.right;
+			return balance(n.element, removeMin(n.left), n.right);
+		}
+
+		/**
+		 * Searches this version for e.
+		 * @return the stored element equal to e, or null
+		 */
+		public E findNode(E e){
+			Node<E> n = root;
+			while (n != null){
+				int c = comp.compare(e, n.element);
+				if (c == 0) return n.element;
+				n = (c < 0) ? n.left : n.right;
+			}
+			return null;
+		}
+
+		public boolean contains(E e) { return findNode(e) != null; }
+
+		/** Returns the smallest element larger than e, or null if there is none. */
+		public E successor(E e){
+			E found = null;
+			Node<E> n = root;
+			while (n != null){
+				if (comp.compare(n.element, e) > 0){
+					found = n.element;			// candidate; look for a smaller one on the left
+					n = n.left;
+				}
+				else
+					n = n.right;
+			}
+			return found;
+		}
+
+		/** Returns the largest element smaller than e, or null if there is none. */
+		public E predecessor(E e){
+			E found = null;
+			Node<E> n = root;
+			while (n != null){
+				if (comp.compare(n.element, e) < 0){
+					found = n.element;			// candidate; look for a larger one on the right
+					n = n.right;
+				}
+				else
+					n = n.left;
+			}
+			return found;
+		}
+
+		/**
+		 * Returns an iterator of the elements of this version in increasing order.
+		 * Later updates to the tree do not affect it.
+		 */
+		@Override
+		public Iterator<E> iterator(){
+			return new Iterator<E>(){
+				private final Deque<Node<E>> path = new ArrayDeque<>();
+				{ pushLeft(root); }
+
+				private void pushLeft(Node<E> n){
+					for (; n != null; n = n.left)
+						path.push(n);
+				}
+
+				public boolean hasNext() { return !path.isEmpty(); }
+
+				public E next(){
+					if (path.isEmpty()) throw new NoSuchElementException("No next element");
+					Node<E> n = path.pop();
+					pushLeft(n.right);
+					return n.element;
+				}
+			};
+		}
+	} //------------ end of nested Version class ------------
+
+	/** The latest version; replaced (never modified) by writers. */
+	private volatile Version<E> current;
+
+	public PersistentBST(Comparator<E> c) { current = new Version<>(c, null); }	// compare by non-natural ordering
+	public PersistentBST() { this(new DefaultComparator<E>()); }					// compare by natural ordering
+
+	/**
+	 * Returns the current version in O(1) time. The snapshot is immutable:
+	 * readers holding it take no locks and never observe later updates.
+	 */
+	public Version<E> snapshot() { return current; }
+
+	/**
+	 * Adds e, publishing a new version. Writers are serialized; readers are not blocked.
+	 * @return true if e was added, false if it was already present
+	 */
+	public synchronized boolean add(E e){
+		Version<E> next = current.add(e);
+		if (next == current)
+			return false;
+		current = next;
+		return true;
+	}
+
+	/**
+	 * Deletes e, publishing a new version. Writers are serialized; readers are not blocked.
+	 * @return true if e was deleted, false if it was not present
+	 */
+	public synchronized boolean delete(E e){
+		Version<E> next = current.delete(e);
+		if (next == current)
+			return false;
+		current = next;
+		return true;
+	}
+
+	// reads go to the latest version
+	public int size() { return current.size(); }
+	public boolean isEmpty() { return current.isEmpty(); }
+	public E findNode(E e) { return current.findNode(e); }
+	public boolean contains(E e) { return current.contains(e); }
+	public E successor(E e) { return current.successor(e); }
+	public E predecessor(E e) { return current.predecessor(e); }
+}
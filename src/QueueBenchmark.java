@@ -0,0 +1,137 @@
+import net.datastructures.*;
+import java.lang.management.ManagementFactory;
+
+// compares enqueue/dequeue throughput and allocation of ArrayQueue and LinkedQueue
+public class QueueBenchmark {
+
+	private static final int DEFAULT_ELEMENTS = 10000000;
+	private static final int WINDOW = 1000;			// queue length in the steady-state test
+	private static final int REPEATS = 5;
+
+	// per-thread allocation counter; null if the virtual machine does not provide one
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)
+			? (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
+
+	private static long allocated(){
+		return (THREADS == null) ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private interface QueueFactory {
+		<T> Queue<T> create();
+	}
+
+	private interface Workload {
+		long run(Queue<Integer> q, int n);			// returns a checksum, so the work is not optimized away
+	}
+
+	// enqueues n elements, then dequeues them all
+	private static long fillAndDrain(Queue<Integer> q, int n){
+		Integer e = 1;								// one boxed value, so only the queue allocates
+		for (int i = 0; i < n; i++)
+			q.enqueue(e);
+		long sum = 0;
+		while (!q.isEmpty())
+			sum += q.dequeue();
+		return sum;
+	}
+
+	// keeps WINDOW elements queued while n elements pass through
+	private static long steadyState(Queue<Integer> q, int n){
+		Integer e = 1;
+		for (int i = 0; i < WINDOW; i++)
+			q.enqueue(e);
+		long sum = 0;
+		for (int i = 0; i < n; i++){
+			q.enqueue(e);
+			sum += q.dequeue();
+		}
+		return sum;
+	}
+
+	// builds a complete binary tree of n positions, level by level
+	private static LinkedBinaryTree<Integer> completeTree(int n){
+		LinkedBinaryTree<Integer> tree = new LinkedBinaryTree<>();
+		if (n == 0)
+			return tree;
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Position<Integer>[] level = (Position<Integer>[]) new Position[n];
+		level[0] = tree.addRoot(0);
+		for (int i = 1; i < n; i++){
+			Position<Integer> parent = level[(i - 1) / 2];
+			level[i] = (i % 2 == 1) ? tree.addLeft(parent, i) : tree.addRight(parent, i);
+		}
+		return tree;
+	}
+
+	// breadth-first walk of tree with fringe as the queue, as AbstractTree.breadthfirst does
+	private static long breadthFirst(LinkedBinaryTree<Integer> tree, Queue<Position<Integer>> fringe){
+		long sum = 0;
+		fringe.enqueue(tree.root());
+		while (!fringe.isEmpty()){
+			Position<Integer> p = fringe.dequeue();
+			sum += p.getElement();
+			Position<Integer> c;
+			if ((c = tree.left(p)) != null)
+				fringe.enqueue(c);
+			if ((c = tree.right(p)) != null)
+				fringe.enqueue(c);
+		}
+		return sum;
+	}
+
+	// times breadth-first walks using queues from factory
+	private static void measureTraversal(String label, QueueFactory factory, LinkedBinaryTree<Integer> tree){
+		long best = Long.MAX_VALUE, bytes = 0, check = 0;
+		int n = tree.size();
+		for (int r = 0; r < REPEATS; r++){
+			long a0 = allocated();
+			long t0 = System.nanoTime();
+			check += breadthFirst(tree, factory.create());
+			long t1 = System.nanoTime();
+			bytes = allocated() - a0;
+			best = Math.min(best, t1 - t0);
+		}
+		System.out.printf("  %-12s %8.1f M nodes/s %6.1f bytes/node      (%d)%n",
+				label, (double) n / best * 1000, (double) bytes / n, check);
+	}
+
+	/**
+	 * Runs a workload REPEATS times on fresh queues and prints the best time
+	 * and the bytes allocated per element.
+	 */
+	private static void measure(String label, QueueFactory factory, Workload work, int n){
+		long best = Long.MAX_VALUE, bytes = 0, check = 0;
+		for (int r = 0; r < REPEATS; r++){
+			Queue<Integer> q = factory.create();
+			long a0 = allocated();
+			long t0 = System.nanoTime();
+			check += work.run(q, n);
+			long t1 = System.nanoTime();
+			bytes = allocated() - a0;
+			best = Math.min(best, t1 - t0);
+		}
+		System.out.printf("  %-12s %8.1f M ops/s   %6.1f bytes/element   (%d)%n",
+				label, 2.0 * n / best * 1000, (double) bytes / n, check);
+	}
+
+	public static void main(String[] args){
+		int n = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_ELEMENTS;
+		if (THREADS != null)
+			THREADS.setThreadAllocatedMemoryEnabled(true);
+
+		System.out.println("fill then drain (" + n + " elements):");
+		measure("ArrayQueue", ArrayQueue::new, QueueBenchmark::fillAndDrain, n);
+		measure("LinkedQueue", LinkedQueue::new, QueueBenchmark::fillAndDrain, n);
+
+		System.out.println("steady state, " + WINDOW + " queued (" + n + " elements):");
+		measure("ArrayQueue", ArrayQueue::new, QueueBenchmark::steadyState, n);
+		measure("LinkedQueue", LinkedQueue::new, QueueBenchmark::steadyState, n);
+
+		int nodes = Math.min(n, 1 << 21);
+		System.out.println("breadth-first walk of a complete tree (" + nodes + " nodes):");
+		LinkedBinaryTree<Integer> tree = completeTree(nodes);
+		measureTraversal("ArrayQueue", ArrayQueue::new, tree);
+		measureTraversal("LinkedQueue", LinkedQueue::new, tree);
+	}
+}
@@ -0,0 +1,130 @@
+import net.datastructures.*;
+import java.util.Comparator;
+
+// red-black balanced binary search tree; height stays within 2*log2(n+1)
+public class RedBlackBST<E> extends MyBST<E> {
+
+	// node colors are kept in the aux field of each BSTNode
+	private static final int BLACK = 0;
+	private static final int RED = 1;
+
+	public RedBlackBST(Comparator<E> c) { super(c); }	// compare by non-natural ordering
+	public RedBlackBST() { super(); }						// compare by natural ordering
+
+	// null children count as black leaves
+	private boolean isBlack(Node<E> n) { return n == null || getAux(n) == BLACK; }
+	private boolean isRed(Node<E> n) { return n != null && getAux(n) == RED; }
+	private void makeBlack(Node<E> n) { setAux(n, BLACK); }
+	private void makeRed(Node<E> n) { setAux(n, RED); }
+
+	/**
+	 * Colors a newly added node red (unless it is the root) and removes
+	 * any double red that this creates.
+	 * @param n: the newly added node
+	 */
+	@Override
+	protected void rebalanceInsert(Node<E> n){
+		if (n != root){
+			makeRed(n);
+			resolveRed(n);
+		}
+	}
+
+	/**
+	 * Removes a possible double red at n, recoloring or restructuring
+	 * and moving up the tree as needed.
+	 * @param n: a red node whose parent may also be red
+	 */
+	private void resolveRed(Node<E> n){
+		while (isRed(n.getParent())){				// double red; parent cannot be root
+			Node<E> parent = n.getParent();
+			Node<E> grand = parent.getParent();
+			Node<E> uncle = (parent == grand.getLeft()) ? grand.getRight() : grand.getLeft();
+			if (isBlack(uncle)){					// case 1: trinode restructuring
+				Node<E> middle = restructure(n);
+				makeBlack(middle);
+				makeRed(middle.getLeft());
+				makeRed(middle.getRight());
+				return;
+			}
+			makeBlack(parent);						// case 2: recoloring
+			makeBlack(uncle);
+			if (grand == root)
+				return;
+			makeRed(grand);
+			n = grand;								// double red may have moved up
+		}
+	}
+
+	/**
+	 * Colors the nodes of a bulk-loaded tree. Every leaf of such a tree is at
+	 * depth maxDepth or maxDepth-1, so making only the deepest level red gives
+	 * all paths the same number of black nodes.
+	 */
+	@Override
+	protected void initLoadedNode(Node<E> n, int depth, int maxDepth){
+		if (depth == maxDepth && depth > 0)
+			makeRed(n);
+		else
+			makeBlack(n);
+	}
+
+	/**
+	 * Restores the black-height property after a node has been spliced out.
+	 * @param removed: the node that was removed
+	 * @param child: the child that took its place (possibly null)
+	 * @param parent: the former parent of removed (null if it was the root)
+	 */
+	@Override
+	protected void rebalanceDelete(Node<E> removed, Node<E> child, Node<E> parent){
+		if (isRed(removed))				// removing a red node keeps black heights
+			return;
+		if (isRed(child)){				// a red child simply takes over the black
+			makeBlack(child);
+			return;
+		}
+		remedyDoubleBlack(child, parent);
+	}
+
+	/**
+	 * Removes the extra black carried by x (possibly null), whose parent is parent.
+	 * @param x: position with a black deficit
+	 * @param parent: parent of x
+	 */
+	private void remedyDoubleBlack(Node<E> x, Node<E> parent){
+		while (x != root && isBlack(x)){
+			// if x is null its sibling is not, so the null slot identifies x's side
+			boolean isLeft = (x == parent.getLeft());
+			Node<E> s = isLeft ? parent.getRight() : parent.getLeft();
+			if (isRed(s)){								// red sibling: rotate so sibling is black
+				makeBlack(s);
+				makeRed(parent);
+				rotate(s);
+				s = isLeft ? parent.getRight() : parent.getLeft();
+			}
+			Node<E> near = isLeft ? s.getLeft() : s.getRight();
+			Node<E> far = isLeft ? s.getRight() : s.getLeft();
+			if (isBlack(near) && isBlack(far)){		// black sibling, black children: recolor
+				makeRed(s);
+				x = parent;								// deficit moves up
+				parent = x.getParent();
+			}
+			else{
+				if (isBlack(far)){						// red child is on the near side
+					makeBlack(near);
+					makeRed(s);
+					rotate(near);
+					far = s;
+					s = near;
+				}
+				setAux(s, getAux(parent));				// red far child: restructure
+				makeBlack(parent);
+				makeBlack(far);
+				rotate(s);
+				return;
+			}
+		}
+		if (x != null)
+			makeBlack(x);
+	}
+}
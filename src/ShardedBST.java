@@ -0,0 +1,224 @@
+import net.datastructures.*;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Lock;
+
+// ordered set that partitions its elements across N independent MyBST shards,
+// each guarded by its own read-write lock, so writers to different shards do not contend
+public class ShardedBST<E> {
+
+	private final Comparator<E> comp;
+	private final MyBST<E>[] shards;
+	private final E[] splits;		// range partitioning: shard i holds [splits[i-1], splits[i]); null if hashed
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private ShardedBST(Comparator<E> c, int n, E[] splitPoints){
+		comp = c;
+		splits = splitPoints;
+		shards = (MyBST<E>[]) new MyBST[n];
+		for (int i = 0; i < n; i++)
+			shards[i] = new MyBST<>(c);
+	}
+
+	/**
+	 * Creates a set whose elements are assigned to shards by hash code.
+	 * Spreads any key distribution evenly, but every ordered scan visits all shards.
+	 * @param n: number of shards
+	 * @param c: comparator defining the order
+	 */
+	public static <E> ShardedBST<E> hashed(int n, Comparator<E> c){
+		if (n < 1) throw new IllegalArgumentException("Need at least one shard");
+		return new ShardedBST<>(c, n, null);
+	}
+
+	public static <E> ShardedBST<E> hashed(int n){
+		return hashed(n, new DefaultComparator<E>());
+	}
+
+	/**
+	 * Creates a set whose elements are assigned to shards by key range.
+	 * k split points give k+1 shards; shard i holds the elements x with
+	 * splitPoints[i-1] <= x < splitPoints[i].
+	 * @param splitPoints: strictly increasing boundaries between shards
+	 * @param c: comparator defining the order
+	 */
+	public static <E> ShardedBST<E> ranged(E[] splitPoints, Comparator<E> c){
+		for (int i = 1; i < splitPoints.length; i++)
+			if (c.compare(splitPoints[i - 1], splitPoints[i]) >= 0)
+				throw new IllegalArgumentException("Split points are not strictly increasing at index " + i);
+		return new ShardedBST<>(c, splitPoints.length + 1, splitPoints.clone());
+	}
+
+	public static <E> ShardedBST<E> ranged(E[] splitPoints){
+		return ranged(splitPoints, new DefaultComparator<E>());
+	}
+
+	// returns the index of the shard responsible for e
+	private int shardOf(E e){
+		if (splits == null){
+			int h = e.hashCode();
+			return Math.floorMod(h ^ (h >>> 16), shards.length);
+		}
+		int lo = 0, hi = splits.length;			// count the split points <= e
+		while (lo < hi){
+			int mid = (lo + hi) >>> 1;
+			if (comp.compare(splits[mid], e) <= 0) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Adds e to its shard, holding only that shard's write lock.
+	 * @return true if e was added, false if it was already present
+	 */
+	public boolean add(E e){
+		MyBST<E> shard = shards[shardOf(e)];
+		Lock lock = shard.lock().writeLock();
+		lock.lock();
+		try{
+			return shard.add(shard.root(), e) != null;
+		} finally{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Deletes e from its shard, holding only that shard's write lock.
+	 * @return the deleted element, or null if e was not present
+	 */
+	public E delete(E e){
+		MyBST<E> shard = shards[shardOf(e)];
+		Lock lock = shard.lock().writeLock();
+		lock.lock();
+		try{
+			return shard.isEmpty() ? null : shard.delete(shard.root(), e);
+		} finally{
+			lock.unlock();
+		}
+	}
+
+	/** Tests whether e is present, holding only its shard's read lock. */
+	public boolean contains(E e){
+		MyBST<E> shard = shards[shardOf(e)];
+		Lock lock = shard.lock().readLock();
+		lock.lock();
+		try{
+			return !shard.isEmpty() && shard.findNode(shard.root(), e) != null;
+		} finally{
+			lock.unlock();
+		}
+	}
+
+	/** Returns the total number of elements; exact only when no writer is active. */
+	public int size(){
+		int total = 0;
+		for (MyBST<E> shard : shards){
+			Lock lock = shard.lock().readLock();
+			lock.lock();
+			try{
+				total += shard.size();
+			} finally{
+				lock.unlock();
+			}
+		}
+		return total;
+	}
+
+	public boolean isEmpty() { return size() == 0; }
+
+	/** Returns the number of shards. */
+	public int shardCount() { return shards.length; }
+
+	/**
+	 * Returns the smallest element of shard i that is larger than e (or equal,
+	 * if inclusive) and not larger than hi, or null. Holds the shard's read lock
+	 * only for the duration of the lookup.
+	 */
+	private E nextInShard(int i, E e, boolean inclusive, E hi){
+		MyBST<E> shard = shards[i];
+		Lock lock = shard.lock().readLock();
+		lock.lock();
+		try{
+			Position<E> p = (e == null) ? (shard.isEmpty() ? null : shard.treeMinimum(shard.root()))
+			                            : shard.ceilingNode(e, inclusive);
+			if (p == null || (hi != null && comp.compare(p.getElement(), hi) > 0))
+				return null;
+			return p.getElement();
+		} finally{
+			lock.unlock();
+		}
+	}
+
+	//---------------- nested Cursor class ----------------
+	/* Position of a scan within one shard: the element it will report next. */
+	private static class Cursor<E> {
+		final int shard;
+		E current;
+		Cursor(int s, E e) { shard = s; current = e; }
+	}
+
+	//---------------- nested MergeIterator class ----------------
+	/*
+	 * Lazily reports elements in order. Each participating shard contributes a
+	 * cursor; a heap of cursors yields the smallest current element. Every step
+	 * looks up the next element of one shard by key, so the iterator never holds
+	 * a lock between calls and tolerates concurrent writers (weakly consistent).
+	 */
+	private class MergeIterator implements Iterator<E> {
+		private final PriorityQueue<Cursor<E>> heap;
+		private final E hi;
+
+		MergeIterator(int firstShard, int lastShard, E lo, E hi){
+			this.hi = hi;
+			heap = new PriorityQueue<>(Math.max(1, lastShard - firstShard + 1),
+					(a, b) -> comp.compare(a.current, b.current));
+			for (int i = firstShard; i <= lastShard; i++){
+				E first = nextInShard(i, lo, true, hi);
+				if (first != null)
+					heap.add(new Cursor<>(i, first));
+			}
+		}
+
+		public boolean hasNext() { return !heap.isEmpty(); }
+
+		public E next() throws NoSuchElementException {
+			if (heap.isEmpty()) throw new NoSuchElementException("No next element");
+			Cursor<E> c = heap.poll();
+			E answer = c.current;
+			c.current = nextInShard(c.shard, answer, false, hi);
+			if (c.current != null)
+				heap.add(c);
+			return answer;
+		}
+	} //------------ end of nested MergeIterator class ------------
+
+	/**
+	 * Returns a lazy iterator over all elements in increasing order.
+	 * @return iterator merging all shards
+	 */
+	public Iterator<E> iterator(){
+		return new MergeIterator(0, shards.length - 1, null, null);
+	}
+
+	/**
+	 * Returns a lazy iterator over the elements x with lo <= x <= hi, in order.
+	 * With range partitioning, only the shards overlapping [lo, hi] are visited.
+	 * @param lo: lower bound (inclusive)
+	 * @param hi: upper bound (inclusive)
+	 * @return iterator of the elements in the range
+	 */
+	public Iterator<E> range(E lo, E hi){
+		if (comp.compare(lo, hi) > 0)
+			return new MergeIterator(0, -1, lo, hi);		// empty
+		if (splits == null)
+			return new MergeIterator(0, shards.length - 1, lo, hi);
+		return new MergeIterator(shardOf(lo), shardOf(hi), lo, hi);
+	}
+
+	/** Returns the split points of a range-partitioned set (null if hashed). */
+	public E[] splitPoints() { return (splits == null) ? null : Arrays.copyOf(splits, splits.length); }
+}
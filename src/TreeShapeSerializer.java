@@ -0,0 +1,118 @@
+import net.datastructures.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+// shape-preserving binary format for any LinkedBinaryTree, such as an expression tree.
+// The shape is a preorder bitmap of two bits per node (has left child, has right child),
+// followed by the elements in the same preorder. Neither direction recurses, so trees of
+// any depth, including a million-node path, are handled without stack overflow.
+public class TreeShapeSerializer {
+
+	// header: magic, format version, node count; then the shape bitmap and the elements
+	private static final int MAGIC = 0x42545348;		// "BTSH"
+	private static final byte FORMAT_VERSION = 1;
+	private static final int HEADER = 4 + 1 + 4;
+
+	private static final int HAS_LEFT = 2;
+	private static final int HAS_RIGHT = 1;
+
+	private TreeShapeSerializer() { }
+
+	/**
+	 * Writes the exact shape and the elements of tree.
+	 * @param tree: tree to be written
+	 * @param codec: converts elements to bytes
+	 * @return a buffer holding the serialized tree, positioned at its start
+	 */
+	public static <E> ByteBuffer serialize(LinkedBinaryTree<E> tree, ElementCodec<E> codec){
+		int n = tree.size();
+		int shapeBytes = (int) ((2L * n + 7) / 8);
+		byte[] shape = new byte[shapeBytes];
+		ByteBuffer elements = ByteBuffer.allocate(Math.max(64, 8 * n));
+		int bit = 0;
+		for (Position<E> p : tree.lazyPreorder()){		// walks parent links; no recursion
+			int code = (tree.left(p) != null ? HAS_LEFT : 0) | (tree.right(p) != null ? HAS_RIGHT : 0);
+			shape[bit >>> 3] |= code << (bit & 7);
+			bit += 2;
+			E e = p.getElement();
+			int need = codec.encodedSize(e);
+			if (elements.remaining() < need){
+				ByteBuffer bigger = ByteBuffer.allocate(Math.max(2 * elements.capacity(), elements.position() + need));
+				elements.flip();
+				elements = bigger.put(elements);
+			}
+			codec.encode(e, elements);
+		}
+		elements.flip();
+		ByteBuffer out = ByteBuffer.allocate(HEADER + shapeBytes + elements.remaining());
+		out.putInt(MAGIC).put(FORMAT_VERSION).putInt(n).put(shape).put(elements);
+		out.flip();
+		return out;
+	}
+
+	/**
+	 * Rebuilds a tree of exactly the serialized shape, in a single pass over the bytes.
+	 * Nodes arrive in preorder; a stack holds the nodes still waiting for a right child.
+	 * @param in: buffer positioned at a serialized tree; its position is advanced
+	 * @param codec: converts bytes back to elements
+	 * @param factory: creates the empty tree to be filled
+	 * @return the rebuilt tree
+	 * @throws IllegalArgumentException if the bytes are not a serialized tree
+	 */
+	public static <E> LinkedBinaryTree<E> deserialize(ByteBuffer in, ElementCodec<E> codec,
+			Supplier<LinkedBinaryTree<E>> factory){
+		LinkedBinaryTree<E> tree = factory.get();
+		if (!tree.isEmpty())
+			throw new IllegalArgumentException("Tree is not empty");
+		try{
+			if (in.getInt() != MAGIC)
+				throw new IllegalArgumentException("Not a serialized tree shape");
+			byte version = in.get();
+			if (version != FORMAT_VERSION)
+				throw new IllegalArgumentException("Unsupported format version " + version);
+			int n = in.getInt();
+			if (n < 0)
+				throw new IllegalArgumentException("Node count out of range: " + n);
+			int shapeStart = in.position();
+			int shapeBytes = (int) ((2L * n + 7) / 8);
+			if (in.remaining() < shapeBytes)
+				throw new IllegalArgumentException("Serialized tree is truncated");
+			in.position(shapeStart + shapeBytes);		// elements follow the shape
+
+			@SuppressWarnings({"unchecked", "rawtypes"})
+			Position<E>[] waiting = (Position<E>[]) new Position[16];	// nodes owed a right child
+			int top = 0;
+			Position<E> leftParent = null;		// node whose left child comes next, if any
+			for (int i = 0; i < n; i++){
+				int code = (in.get(shapeStart + (i >>> 2)) >>> (2 * (i & 3))) & 3;
+				E e = codec.decode(in);
+				Position<E> p;
+				if (i == 0)
+					p = tree.addRoot(e);
+				else if (leftParent != null)
+					p = tree.addLeft(leftParent, e);
+				else if (top > 0)
+					p = tree.addRight(waiting[--top], e);
+				else
+					throw new IllegalArgumentException("Shape has more nodes than links at node " + i);
+				if ((code & HAS_RIGHT) != 0){
+					if (top == waiting.length)
+						waiting = Arrays.copyOf(waiting, 2 * top);
+					waiting[top++] = p;
+				}
+				leftParent = ((code & HAS_LEFT) != 0) ? p : null;
+			}
+			if (leftParent != null || top > 0)
+				throw new IllegalArgumentException("Shape has links to missing nodes");
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e){
+			throw new IllegalArgumentException("Serialized tree is truncated");
+		}
+		return tree;
+	}
+
+	public static <E> LinkedBinaryTree<E> deserialize(ByteBuffer in, ElementCodec<E> codec){
+		return deserialize(in, codec, LinkedBinaryTree::new);
+	}
+}
@@ -22,8 +22,8 @@
  */
 package net.datastructures;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * An abstract base class providing some functionality of the BinaryTree interface.
@@ -83,9 +83,9 @@ public abstract class AbstractBinaryTree<E> extends AbstractTree<E>
   public Iterable<Position<E>> children(Position<E> p) {
     List<Position<E>> snapshot = new ArrayList<>(2);    // max capacity of 2
     if (left(p) != null)
-      snapshot.add(left(p));
+      snapshot.add(snapshot.size(), left(p));
     if (right(p) != null)
-      snapshot.add(right(p));
+      snapshot.add(snapshot.size(), right(p));
     return snapshot;
   }
 
@@ -98,7 +98,7 @@ public abstract class AbstractBinaryTree<E> extends AbstractTree<E>
   private void inorderSubtree(Position<E> p, List<Position<E>> snapshot) {
     if (left(p) != null)
       inorderSubtree(left(p), snapshot);
-    snapshot.add(p);
+    snapshot.add(snapshot.size(), p);
     if (right(p) != null)
       inorderSubtree(right(p), snapshot);
   }
@@ -108,18 +108,128 @@ public abstract class AbstractBinaryTree<E> extends AbstractTree<E>
    * @return iterable collection of the tree's positions reported in inorder
    */
   public Iterable<Position<E>> inorder() {
-    List<Position<E>> snapshot = new ArrayList<>();
+    List<Position<E>> snapshot = newSnapshot(size());
     if (!isEmpty())
       inorderSubtree(root(), snapshot);   // fill the snapshot recursively
     return snapshot;
   }
 
   /**
-   * Returns an iterable collection of the positions of the tree using inorder traversal
+   * Returns an iterable collection of the positions of the tree using inorder traversal.
+   * The positions are produced lazily; use inorder() for an independent snapshot.
    * @return iterable collection of the tree's positions using inorder traversal
    */
   @Override
   public Iterable<Position<E>> positions() {
-    return inorder();
+    return lazyInorder();
+  }
+
+  //---------------- nested WalkIterator class ----------------
+  /*
+   * Lazy traversal that steps from each position to the next by following
+   * parent and child links, so it needs only constant extra memory.
+   */
+  private abstract class WalkIterator implements Iterator<Position<E>> {
+    private Position<E> next;                  // next position to report (or null)
+
+    WalkIterator(Position<E> first) { next = first; }
+
+    /* Returns the position that follows p in this traversal (or null). */
+    protected abstract Position<E> after(Position<E> p);
+
+    public boolean hasNext() { return next != null; }
+
+    public Position<E> next() throws NoSuchElementException {
+      if (next == null) throw new NoSuchElementException("No next element");
+      Position<E> answer = next;
+      next = after(answer);
+      return answer;
+    }
+  } //------------ end of nested WalkIterator class ------------
+
+  /* Returns the leftmost position of the subtree rooted at p. */
+  private Position<E> leftmost(Position<E> p) {
+    while (left(p) != null)
+      p = left(p);
+    return p;
+  }
+
+  /* Returns the first position of the subtree rooted at p in postorder. */
+  private Position<E> firstPostorder(Position<E> p) {
+    while (true) {
+      if (left(p) != null) p = left(p);
+      else if (right(p) != null) p = right(p);
+      else return p;                             // a leaf
+    }
+  }
+
+  /* Returns the position after p in inorder (or null). */
+  private Position<E> inorderAfter(Position<E> p) {
+    if (right(p) != null)
+      return leftmost(right(p));
+    Position<E> above = parent(p);
+    while (above != null && p == right(above)) {   // climb while p is a right child
+      p = above;
+      above = parent(above);
+    }
+    return above;
+  }
+
+  /* Returns the position after p in preorder (or null). */
+  private Position<E> preorderAfter(Position<E> p) {
+    if (left(p) != null) return left(p);
+    if (right(p) != null) return right(p);
+    Position<E> above = parent(p);
+    while (above != null) {                        // find a right sibling of p or an ancestor
+      if (p == left(above) && right(above) != null)
+        return right(above);
+      p = above;
+      above = parent(above);
+    }
+    return null;
+  }
+
+  /* Returns the position after p in postorder (or null). */
+  private Position<E> postorderAfter(Position<E> p) {
+    Position<E> above = parent(p);
+    if (above == null) return null;                // p was the root, which is last
+    if (p == left(above) && right(above) != null)
+      return firstPostorder(right(above));
+    return above;
+  }
+
+  /**
+   * Returns a lazy iterable of the positions of the tree, reported in inorder.
+   * Uses constant extra memory; the tree must not be modified during iteration.
+   * @return iterable of the tree's positions in inorder
+   */
+  public Iterable<Position<E>> lazyInorder() {
+    return () -> new WalkIterator(root() == null ? null : leftmost(root())) {
+      protected Position<E> after(Position<E> p) { return inorderAfter(p); }
+    };
+  }
+
+  /**
+   * Returns a lazy iterable of the positions of the tree, reported in preorder.
+   * Uses constant extra memory; the tree must not be modified during iteration.
+   * @return iterable of the tree's positions in preorder
+   */
+  @Override
+  public Iterable<Position<E>> lazyPreorder() {
+    return () -> new WalkIterator(root()) {
+      protected Position<E> after(Position<E> p) { return preorderAfter(p); }
+    };
+  }
+
+  /**
+   * Returns a lazy iterable of the positions of the tree, reported in postorder.
+   * Uses constant extra memory; the tree must not be modified during iteration.
+   * @return iterable of the tree's positions in postorder
+   */
+  @Override
+  public Iterable<Position<E>> lazyPostorder() {
+    return () -> new WalkIterator(root() == null ? null : firstPostorder(root())) {
+      protected Position<E> after(Position<E> p) { return postorderAfter(p); }
+    };
   }
 }
@@ -22,9 +22,8 @@
  */
 package net.datastructures;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * An abstract base class providing some functionality of the Tree interface.
@@ -160,10 +159,137 @@ public abstract class AbstractTree<E> implements Tree<E> {
 
   /**
    * Returns an iterable collection of the positions of the tree.
+   * The positions are produced lazily, in preorder; use preorder()
+   * for an independent snapshot.
    * @return iterable collection of the tree's positions
    */
   @Override
-  public Iterable<Position<E>> positions() { return preorder(); }
+  public Iterable<Position<E>> positions() { return lazyPreorder(); }
+
+  //---------------- nested PreorderIterator class ----------------
+  /* Lazy preorder walk, keeping a stack of child iterators along the current path. */
+  private class PreorderIterator implements Iterator<Position<E>> {
+    private Stack<Iterator<Position<E>>> pending = new LinkedStack<>();
+    private Position<E> next = root();         // next position to report (or null)
+
+    public boolean hasNext() { return next != null; }
+
+    public Position<E> next() throws NoSuchElementException {
+      if (next == null) throw new NoSuchElementException("No next element");
+      Position<E> answer = next;
+      pending.push(children(answer).iterator());   // explore answer's children next
+      next = null;
+      while (next == null && !pending.isEmpty()) {
+        if (pending.top().hasNext())
+          next = pending.top().next();
+        else
+          pending.pop();                           // subtree fully reported
+      }
+      return answer;
+    }
+  } //------------ end of nested PreorderIterator class ------------
+
+  //---------------- nested PostorderIterator class ----------------
+  /* Lazy postorder walk, keeping the current path and its child iterators on stacks. */
+  private class PostorderIterator implements Iterator<Position<E>> {
+    private Stack<Position<E>> path = new LinkedStack<>();
+    private Stack<Iterator<Position<E>>> pending = new LinkedStack<>();
+
+    PostorderIterator() {
+      if (root() != null)
+        descend(root());
+    }
+
+    /* Pushes p and its first descendants until reaching p's first position in postorder. */
+    private void descend(Position<E> p) {
+      while (true) {
+        path.push(p);
+        Iterator<Position<E>> kids = children(p).iterator();
+        pending.push(kids);
+        if (!kids.hasNext()) return;
+        p = kids.next();
+      }
+    }
+
+    public boolean hasNext() { return !path.isEmpty(); }
+
+    public Position<E> next() throws NoSuchElementException {
+      if (path.isEmpty()) throw new NoSuchElementException("No next element");
+      Position<E> answer = path.pop();             // all of its children were reported
+      pending.pop();
+      if (!pending.isEmpty() && pending.top().hasNext())
+        descend(pending.top().next());             // continue with answer's next sibling
+      return answer;
+    }
+  } //------------ end of nested PostorderIterator class ------------
+
+  //---------------- nested BreadthFirstIterator class ----------------
+  /* Lazy breadth-first walk, keeping the unexplored fringe in a queue. */
+  private class BreadthFirstIterator implements Iterator<Position<E>> {
+    private Queue<Position<E>> fringe = new ArrayQueue<>();
+
+    BreadthFirstIterator() {
+      if (root() != null)
+        fringe.enqueue(root());                    // start with the root
+    }
+
+    public boolean hasNext() { return !fringe.isEmpty(); }
+
+    public Position<E> next() throws NoSuchElementException {
+      if (fringe.isEmpty()) throw new NoSuchElementException("No next element");
+      Position<E> p = fringe.dequeue();            // remove from front of the queue
+      for (Position<E> c : children(p))
+        fringe.enqueue(c);                         // add children to back of queue
+      return p;
+    }
+  } //------------ end of nested BreadthFirstIterator class ------------
+
+  /**
+   * Returns a lazy iterable of the positions of the tree, reported in preorder.
+   * No snapshot is made, so the tree must not be modified during iteration.
+   * @return iterable of the tree's positions in preorder
+   */
+  public Iterable<Position<E>> lazyPreorder() {
+    return () -> new PreorderIterator();
+  }
+
+  /**
+   * Returns a lazy iterable of the positions of the tree, reported in postorder.
+   * No snapshot is made, so the tree must not be modified during iteration.
+   * @return iterable of the tree's positions in postorder
+   */
+  public Iterable<Position<E>> lazyPostorder() {
+    return () -> new PostorderIterator();
+  }
+
+  /**
+   * Returns a lazy iterable of the positions of the tree, in breadth-first order.
+   * No snapshot is made, so the tree must not be modified during iteration.
+   * @return iterable of the tree's positions in breadth-first order
+   */
+  public Iterable<Position<E>> lazyBreadthfirst() {
+    return () -> new BreadthFirstIterator();
+  }
+
+  /**
+   * Snapshots expected to hold at least this many positions are stored in a
+   * SegmentedList, which grows without copying and without huge allocations.
+   */
+  public static final int SEGMENTED_SNAPSHOT_THRESHOLD = 1 << 20;
+
+  /**
+   * Creates the list that receives the positions of a traversal snapshot.
+   * Smaller snapshots use an array list presized to the expected count, so
+   * it never resizes; larger ones use a segmented list.
+   *
+   * @param expected   the number of positions the snapshot will hold
+   * @return an empty list for the snapshot
+   */
+  protected List<Position<E>> newSnapshot(int expected) {
+    if (expected >= SEGMENTED_SNAPSHOT_THRESHOLD)
+      return new SegmentedList<>();
+    return new ArrayList<>(expected);
+  }
 
   /**
    * Adds positions of the subtree rooted at Position p to the given
@@ -172,7 +298,7 @@ public abstract class AbstractTree<E> implements Tree<E> {
    * @param snapshot  a list to which results are appended
    */
   private void preorderSubtree(Position<E> p, List<Position<E>> snapshot) {
-    snapshot.add(p);                       // for preorder, we add position p before exploring subtrees
+    snapshot.add(snapshot.size(), p);      // for preorder, we add position p before exploring subtrees
     for (Position<E> c : children(p))
       preorderSubtree(c, snapshot);
   }
@@ -182,7 +308,7 @@ public abstract class AbstractTree<E> implements Tree<E> {
    * @return iterable collection of the tree's positions in preorder
    */
   public Iterable<Position<E>> preorder() {
-    List<Position<E>> snapshot = new ArrayList<>();
+    List<Position<E>> snapshot = newSnapshot(size());
     if (!isEmpty())
       preorderSubtree(root(), snapshot);   // fill the snapshot recursively
     return snapshot;
@@ -197,7 +323,7 @@ public abstract class AbstractTree<E> implements Tree<E> {
   private void postorderSubtree(Position<E> p, List<Position<E>> snapshot) {
     for (Position<E> c : children(p))
       postorderSubtree(c, snapshot);
-    snapshot.add(p);                       // for postorder, we add position p after exploring subtrees
+    snapshot.add(snapshot.size(), p);      // for postorder, we add position p after exploring subtrees
   }
 
   /**
@@ -205,7 +331,7 @@ public abstract class AbstractTree<E> implements Tree<E> {
    * @return iterable collection of the tree's positions in postorder
    */
   public Iterable<Position<E>> postorder() {
-    List<Position<E>> snapshot = new ArrayList<>();
+    List<Position<E>> snapshot = newSnapshot(size());
     if (!isEmpty())
       postorderSubtree(root(), snapshot);   // fill the snapshot recursively
     return snapshot;
@@ -216,13 +342,13 @@ public abstract class AbstractTree<E> implements Tree<E> {
    * @return iterable collection of the tree's positions in breadth-first order
    */
   public Iterable<Position<E>> breadthfirst() {
-    List<Position<E>> snapshot = new ArrayList<>();
+    List<Position<E>> snapshot = newSnapshot(size());
     if (!isEmpty()) {
-      Queue<Position<E>> fringe = new LinkedQueue<>();
+      Queue<Position<E>> fringe = new ArrayQueue<>();
       fringe.enqueue(root());                 // start with the root
       while (!fringe.isEmpty()) {
         Position<E> p = fringe.dequeue();     // remove from front of the queue
-        snapshot.add(p);                      // report this position
+        snapshot.add(snapshot.size(), p);     // report this position
         for (Position<E> c : children(p))
           fringe.enqueue(c);                  // add children to back of queue
       }
@@ -22,8 +22,13 @@
  */
 package net.datastructures;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Realization of a list by means of a dynamic array. This is a simplified version
@@ -44,6 +49,52 @@ public class ArrayList<E> implements List<E> {
   /** Current number of elements in the list. */
   private int size = 0;                    // current number of elements
 
+  /** Number of structural modifications (adds and removals), for fail-fast iteration. */
+  private int modCount = 0;
+
+  /** Largest array length that all virtual machines can allocate. */
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  //---------------- nested GrowthPolicy interface ----------------
+  /**
+   * Decides the new capacity when the list runs out of room. Doubling gives
+   * the fewest copies; 1.5x and fixed chunks trade copies for lower peak memory.
+   */
+  public interface GrowthPolicy {
+    /**
+     * Returns the capacity to grow to.
+     * @param  capacity      the current capacity
+     * @param  minCapacity   the capacity that is needed (greater than capacity)
+     * @return the new capacity (at least minCapacity)
+     */
+    int grow(int capacity, int minCapacity);
+
+    /** Doubles the capacity. */
+    GrowthPolicy DOUBLING = (capacity, minCapacity) -> clamp(2L * capacity, minCapacity);
+
+    /** Grows the capacity by half. */
+    GrowthPolicy ONE_AND_A_HALF = (capacity, minCapacity) -> clamp(capacity + (capacity >> 1), minCapacity);
+
+    /**
+     * Returns a policy that adds a fixed number of slots at a time.
+     * @param  chunk   the number of slots to add (positive)
+     */
+    static GrowthPolicy fixedChunk(int chunk) {
+      if (chunk < 1) throw new IllegalArgumentException("Chunk must be positive");
+      return (capacity, minCapacity) -> clamp((long) capacity + chunk, minCapacity);
+    }
+  } //------------ end of nested GrowthPolicy interface ------------
+
+  /** Returns the larger of proposed and minCapacity, limited to MAX_CAPACITY. */
+  private static int clamp(long proposed, int minCapacity) {
+    if (minCapacity < 0 || minCapacity > MAX_CAPACITY)
+      throw new OutOfMemoryError("Required array size too large");
+    return (int) Math.min(Math.max(proposed, minCapacity), MAX_CAPACITY);
+  }
+
+  /** Policy used when the array is full. */
+  private GrowthPolicy growth = GrowthPolicy.DOUBLING;
+
   // constructors
   /** Creates an array list with default initial capacity. */
   public ArrayList() { this(CAPACITY); }   // constructs list with default capacity
@@ -54,6 +105,12 @@ public class ArrayList<E> implements List<E> {
     data = (E[]) new Object[capacity];     // safe cast; compiler may give warning
   }
 
+  /** Creates an array list with given initial capacity and growth policy. */
+  public ArrayList(int capacity, GrowthPolicy policy) {
+    this(capacity);
+    setGrowthPolicy(policy);
+  }
+
   // public methods
   /**
    * Returns the number of elements in the list.
@@ -102,11 +159,57 @@ public class ArrayList<E> implements List<E> {
   public void add(int i, E e) throws IndexOutOfBoundsException {
     checkIndex(i, size + 1);
     if (size == data.length)               // not enough capacity
-      resize(2 * data.length);             // so double the current capacity
-    for (int k=size-1; k >= i; k--)        // start by shifting rightmost
-      data[k+1] = data[k];
+      grow(size + 1);                      // so grow by the policy
+    System.arraycopy(data, i, data, i+1, size-i);   // shift rightward in one block copy
     data[i] = e;                           // ready to place the new element
     size++;
+    modCount++;
+  }
+
+  /**
+   * Inserts all given elements at the specified index, in iteration order,
+   * shifting the subsequent elements only once.
+   * @param  i       the index at which the first new element should be stored
+   * @param  items   the elements to insert
+   * @throws IndexOutOfBoundsException if the index is negative or greater than size()
+   * @throws OutOfMemoryError if the list would grow beyond the largest array size
+   */
+  public void addAll(int i, Iterable<? extends E> items) throws IndexOutOfBoundsException {
+    checkIndex(i, size + 1);
+    Object[] added = toArray(items);
+    int n = added.length;
+    if (n == 0) return;
+    if (n > MAX_CAPACITY - size)           // size + n would overflow
+      throw new OutOfMemoryError("Required array size too large");
+    ensureCapacity(size + n);
+    System.arraycopy(data, i, data, i+n, size-i);   // open a gap of n cells
+    System.arraycopy(added, 0, data, i, n);
+    size += n;
+    modCount++;
+  }
+
+  /**
+   * Appends all given elements to the end of the list, in iteration order.
+   * @param  items   the elements to append
+   */
+  public void addAll(Iterable<? extends E> items) { addAll(size, items); }
+
+  /** Copies the elements of items into a new array, sized up front when the count is known. */
+  private static Object[] toArray(Iterable<?> items) {
+    if (items instanceof Collection)
+      return ((Collection<?>) items).toArray();
+    if (items instanceof ArrayList) {
+      ArrayList<?> list = (ArrayList<?>) items;
+      return Arrays.copyOf(list.data, list.size, Object[].class);
+    }
+    Object[] buffer = new Object[(items instanceof List) ? ((List<?>) items).size() : CAPACITY];
+    int n = 0;
+    for (Object e : items) {
+      if (n == buffer.length)
+        buffer = Arrays.copyOf(buffer, GrowthPolicy.DOUBLING.grow(n, n + 1));
+      buffer[n++] = e;
+    }
+    return (n == buffer.length) ? buffer : Arrays.copyOf(buffer, n);
   }
 
   /**
@@ -119,13 +222,68 @@ public class ArrayList<E> implements List<E> {
   public E remove(int i) throws IndexOutOfBoundsException {
     checkIndex(i, size);
     E temp = data[i];
-    for (int k=i; k < size-1; k++)         // shift elements to fill hole
-      data[k] = data[k+1];
+    System.arraycopy(data, i+1, data, i, size-i-1);   // shift leftward to fill hole
     data[size-1] = null;                   // help garbage collection
     size--;
+    modCount++;
     return temp;
   }
 
+  /**
+   * Performs the given action on each element, in order. Loops over the
+   * internal array directly, without creating an iterator.
+   * @param  action   the action to perform
+   * @throws ConcurrentModificationException if the action adds or removes elements
+   */
+  @Override
+  public void forEach(Consumer<? super E> action) {
+    final int expected = modCount;
+    final E[] a = data;
+    final int n = size;
+    for (int k=0; k < n && modCount == expected; k++)
+      action.accept(a[k]);
+    if (modCount != expected)
+      throw new ConcurrentModificationException();
+  }
+
+  /**
+   * Removes every element that satisfies the given predicate, in a single pass
+   * that slides each kept element down to its final cell, so the cost is O(n)
+   * however many elements are removed. If the predicate throws, the elements
+   * not yet tested are kept.
+   * @param  filter   returns true for elements to be removed
+   * @return true if any elements were removed
+   * @throws ConcurrentModificationException if the predicate adds or removes elements
+   */
+  public boolean removeIf(Predicate<? super E> filter) {
+    final int expected = modCount;
+    final int n = size;
+    int kept = 0;                          // data[0..kept-1] are the survivors so far
+    int k = 0;
+    try {
+      for (; k < n; k++) {
+        E e = data[k];
+        boolean remove = filter.test(e);
+        if (modCount != expected)        // element k is still kept as part of the tail
+          throw new ConcurrentModificationException();
+        if (!remove)
+          data[kept++] = e;
+      }
+    } finally {
+      int end = Math.max(size, k);         // the predicate may have added elements
+      if (k < end) {                       // predicate threw: keep the untested tail
+        System.arraycopy(data, k, data, kept, end-k);
+        kept += end-k;
+      }
+      Arrays.fill(data, kept, end, null);  // help garbage collection
+      if (kept < end) {
+        size = kept;
+        modCount++;
+      }
+    }
+    return kept < n;
+  }
+
   // utility methods
   /** Checks whether the given index is in the range [0, n-1]. */
   protected void checkIndex(int i, int n) throws IndexOutOfBoundsException {
@@ -134,12 +292,38 @@ public class ArrayList<E> implements List<E> {
   }
 
   /** Resizes internal array to have given capacity >= size. */
-  @SuppressWarnings({"unchecked"})
   protected void resize(int capacity) {
-    E[] temp = (E[]) new Object[capacity];     // safe cast; compiler may give warning
-    for (int k=0; k < size; k++)
-      temp[k] = data[k];
-    data = temp;                               // start using the new array
+    data = Arrays.copyOf(data, capacity);      // one block copy into the new array
+  }
+
+  /** Grows the internal array, by the growth policy, to hold at least minCapacity elements. */
+  private void grow(int minCapacity) {
+    resize(growth.grow(data.length, minCapacity));
+  }
+
+  /**
+   * Sets the policy that decides how much the internal array grows when it is full.
+   * @param  policy   the growth policy, e.g. GrowthPolicy.ONE_AND_A_HALF
+   */
+  public void setGrowthPolicy(GrowthPolicy policy) {
+    if (policy == null) throw new NullPointerException("policy");
+    growth = policy;
+  }
+
+  /**
+   * Grows the internal array, if needed, so the list can hold minCapacity
+   * elements without further resizing.
+   * @param  minCapacity   the desired minimum capacity
+   */
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > data.length)
+      grow(minCapacity);
+  }
+
+  /** Shrinks the internal array to the current number of elements. */
+  public void trimToSize() {
+    if (size < data.length)
+      resize(size);
   }
 
   //---------------- nested ArrayIterator class ----------------
@@ -151,6 +335,13 @@ public class ArrayList<E> implements List<E> {
     /** Index of the next element to report. */
     private int j = 0;                   // index of the next element to report
     private boolean removable = false;   // can remove be called at this time?
+    private int expectedModCount = modCount;   // list changes not made by this iterator are errors
+
+    /** Throws if the list was structurally modified other than through this iterator. */
+    private void checkForComodification() throws ConcurrentModificationException {
+      if (modCount != expectedModCount)
+        throw new ConcurrentModificationException();
+    }
 
     /**
      * Tests whether the iterator has a next object.
@@ -163,9 +354,11 @@ public class ArrayList<E> implements List<E> {
      *
      * @return next object
      * @throws NoSuchElementException if there are no further elements
+     * @throws ConcurrentModificationException if the list was modified since this iterator was created
      */
     public E next() throws NoSuchElementException {
-      if (j == size) throw new NoSuchElementException("No next element");
+      checkForComodification();
+      if (j >= size) throw new NoSuchElementException("No next element");
       removable = true;   // this element can subsequently be removed
       return data[j++];   // post-increment j, so it is ready for future call to next
     }
@@ -177,7 +370,9 @@ public class ArrayList<E> implements List<E> {
      */
     public void remove() throws IllegalStateException {
       if (!removable) throw new IllegalStateException("nothing to remove");
+      checkForComodification();
       ArrayList.this.remove(j-1);  // that was the last one returned
+      expectedModCount = modCount; // our own removal is allowed
       j--;                         // next element has shifted one cell to the left
       removable = false;           // do not allow remove again until next is called
     }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014, Michael T. Goodrich, Roberto Tamassia, Michael H. Goldwasser
+ *
+ * Developed for use with the book:
+ *
+ *    Data Structures and Algorithms in Java, Sixth Edition
+ *    Michael T. Goodrich, Roberto Tamassia, and Michael H. Goldwasser
+ *    John Wiley & Sons, 2014
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.datastructures;
+
+/**
+ * Realization of a FIFO queue as a circular array whose capacity is a power
+ * of two, so positions wrap around with a bit mask rather than a division.
+ * When full, the array doubles and the elements are unrolled into the new
+ * array in two block copies. Enqueue and dequeue run in amortized constant
+ * time and, unlike LinkedQueue, allocate nothing per element.
+ *
+ * @see LinkedQueue
+ */
+public class ArrayQueue<E> implements Queue<E> {
+  // instance variables
+  /** Default array capacity. */
+  public static final int CAPACITY = 16;   // default array capacity
+
+  /** Largest power-of-two capacity an array can have. */
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  /** Circular array used for storage of queue elements. */
+  private E[] data;
+
+  /** data.length - 1; selects the cell of an unwrapped position. */
+  private int mask;
+
+  /** Index of the front element. */
+  private int front = 0;
+
+  /** Current number of elements in the queue. */
+  private int size = 0;
+
+  // constructors
+  /** Constructs an empty queue with default capacity. */
+  public ArrayQueue() { this(CAPACITY); }
+
+  /**
+   * Constructs an empty queue able to hold the given number of elements before
+   * growing. The capacity is rounded up to a power of two.
+   * @param capacity  the initial capacity
+   */
+  @SuppressWarnings({"unchecked"})
+  public ArrayQueue(int capacity) {
+    if (capacity < 0 || capacity > MAX_CAPACITY)
+      throw new IllegalArgumentException("Illegal capacity: " + capacity);
+    int n = 1;
+    while (n < capacity)                   // round up to a power of two
+      n <<= 1;
+    data = (E[]) new Object[n];            // safe cast; compiler may give warning
+    mask = n - 1;
+  }
+
+  // methods
+  /**
+   * Returns the number of elements in the queue.
+   * @return number of elements in the queue
+   */
+  @Override
+  public int size() { return size; }
+
+  /**
+   * Tests whether the queue is empty.
+   * @return true if the queue is empty, false otherwise
+   */
+  @Override
+  public boolean isEmpty() { return size == 0; }
+
+  /**
+   * Inserts an element at the rear of the queue, doubling the array if it is full.
+   * @param e  the element to be inserted
+   */
+  @Override
+  public void enqueue(E e) {
+    if (size == data.length)
+      grow();
+    data[(front + size) & mask] = e;       // use the mask to wrap around
+    size++;
+  }
+
+  /**
+   * Returns, but does not remove, the first element of the queue.
+   * @return the first element of the queue (or null if empty)
+   */
+  @Override
+  public E first() {
+    if (isEmpty()) return null;
+    return data[front];
+  }
+
+  /**
+   * Removes and returns the first element of the queue.
+   * @return element removed (or null if empty)
+   */
+  @Override
+  public E dequeue() {
+    if (isEmpty()) return null;
+    E answer = data[front];
+    data[front] = null;                    // dereference to help garbage collection
+    front = (front + 1) & mask;
+    size--;
+    return answer;
+  }
+
+  /** Doubles the array, unrolling the elements so the front is at index 0. */
+  @SuppressWarnings({"unchecked"})
+  private void grow() {
+    if (data.length == MAX_CAPACITY)
+      throw new IllegalStateException("Queue is full");
+    E[] temp = (E[]) new Object[2 * data.length];   // safe cast; compiler may give warning
+    int head = data.length - front;        // elements from front to the end of the array
+    System.arraycopy(data, front, temp, 0, head);
+    System.arraycopy(data, 0, temp, head, front);
+    data = temp;
+    mask = data.length - 1;
+    front = 0;
+  }
+
+  /**
+   * Produces a string representation of the contents of the queue
+   * (from front to back). This exists for debugging purposes only.
+   */
+  public String toString() {
+    StringBuilder sb = new StringBuilder("(");
+    for (int k = 0; k < size; k++) {
+      if (k > 0) sb.append(", ");
+      sb.append(data[(front + k) & mask]);
+    }
+    sb.append(")");
+    return sb.toString();
+  }
+}
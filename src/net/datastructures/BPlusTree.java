@@ -0,0 +1,501 @@
+/*
+ * Copyright 2014, Michael T. Goodrich, Roberto Tamassia, Michael H. Goldwasser
+ *
+ * Developed for use with the book:
+ *
+ *    Data Structures and Algorithms in Java, Sixth Edition
+ *    Michael T. Goodrich, Roberto Tamassia, and Michael H. Goldwasser
+ *    John Wiley & Sons, 2014
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.datastructures;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An ordered set implemented as a B+ tree. Every node holds many keys, so a
+ * lookup touches about log_f(n) nodes rather than log_2(n), and the leaves are
+ * linked in key order, so scans move through consecutive leaf arrays without
+ * revisiting internal nodes.
+ *
+ * Internal nodes hold up to <tt>fanout</tt> children and <tt>fanout</tt>-1
+ * separating keys; the subtree of child i holds the keys k with
+ * keys[i-1] &lt;= k &lt; keys[i]. Leaves hold up to <tt>fanout</tt> keys.
+ * All nodes other than the root are kept at least half full.
+ *
+ * The methods offer the same add/delete/find/successor/predecessor
+ * operations as a binary search tree, addressed by element.
+ */
+public class BPlusTree<E> implements Iterable<E> {
+
+  /** Size in bytes of a processor cache line. */
+  public static final int CACHE_LINE_BYTES = 64;
+
+  /** Size in bytes of a virtual memory page. */
+  public static final int PAGE_BYTES = 4096;
+
+  /** Assumed size of an object reference (compressed references). */
+  private static final int REFERENCE_BYTES = 4;
+
+  /** Assumed size of an array object header. */
+  private static final int ARRAY_HEADER_BYTES = 16;
+
+  /** Smallest supported fanout. */
+  public static final int MIN_FANOUT = 4;
+
+  /**
+   * Returns the largest fanout whose internal node arrays (keys and children)
+   * fit in the given number of bytes, but at least MIN_FANOUT.
+   * For example, fanoutForBytes(PAGE_BYTES) sizes each node to one page, and
+   * fanoutForBytes(4 * CACHE_LINE_BYTES) to four cache lines.
+   *
+   * @param bytes  the target size of a node's arrays
+   * @return the corresponding fanout
+   */
+  public static int fanoutForBytes(int bytes) {
+    return Math.max(MIN_FANOUT, (bytes - 2 * ARRAY_HEADER_BYTES) / (2 * REFERENCE_BYTES));
+  }
+
+  /** Default fanout: each node's arrays fill one page. */
+  public static final int DEFAULT_FANOUT = fanoutForBytes(PAGE_BYTES);
+
+  //---------------- nested Node classes ----------------
+  /** Common part of leaf and internal nodes: a sorted array of keys. */
+  private static abstract class Node<E> {
+    Object[] keys;          // keys[0..n-1] in increasing order
+    int n;                  // number of keys in use
+    Node(int capacity) { keys = new Object[capacity]; }
+  }
+
+  /** Leaf node; holds the elements, and is linked to its neighbors in key order. */
+  private static class Leaf<E> extends Node<E> {
+    Leaf<E> prev, next;
+    Leaf(int fanout) { super(fanout + 1); }            // one spare slot for overflow
+  }
+
+  /** Internal node; n keys separate n+1 children. */
+  private static class Inner<E> extends Node<E> {
+    Node<E>[] children;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Inner(int fanout) {
+      super(fanout);                                   // one spare key for overflow
+      children = (Node<E>[]) new Node[fanout + 1];
+    }
+  }
+  //----------- end of nested Node classes -----------
+
+  // instance variables of the BPlusTree
+  private final Comparator<E> comp;
+  private final int fanout;
+  private Node<E> root;
+  private Leaf<E> head;                  // leftmost leaf
+  private Leaf<E> tail;                  // rightmost leaf
+  private int size = 0;
+
+  /**
+   * Constructs an empty tree.
+   *
+   * @param fanout  maximum number of children of an internal node (at least MIN_FANOUT)
+   * @param c       comparator defining the order of the elements
+   * @throws IllegalArgumentException if fanout is smaller than MIN_FANOUT
+   */
+  public BPlusTree(int fanout, Comparator<E> c) throws IllegalArgumentException {
+    if (fanout < MIN_FANOUT)
+      throw new IllegalArgumentException("Fanout must be at least " + MIN_FANOUT);
+    this.fanout = fanout;
+    comp = c;
+    head = tail = new Leaf<>(fanout);
+    root = head;
+  }
+
+  /** Constructs an empty tree with the default fanout, ordered by c. */
+  public BPlusTree(Comparator<E> c) { this(DEFAULT_FANOUT, c); }
+
+  /** Constructs an empty tree with the given fanout, using natural ordering. */
+  public BPlusTree(int fanout) { this(fanout, new DefaultComparator<E>()); }
+
+  /** Constructs an empty tree with the default fanout, using natural ordering. */
+  public BPlusTree() { this(DEFAULT_FANOUT); }
+
+  // accessor methods
+  /** Returns the number of elements in the tree. */
+  public int size() { return size; }
+
+  /** Tests whether the tree is empty. */
+  public boolean isEmpty() { return size == 0; }
+
+  /** Returns the maximum number of children of an internal node. */
+  public int fanout() { return fanout; }
+
+  /** Returns the number of levels of the tree (1 when the root is a leaf). */
+  public int levels() {
+    int levels = 1;
+    for (Node<E> w = root; w instanceof Inner; w = ((Inner<E>) w).children[0])
+      levels++;
+    return levels;
+  }
+
+  @SuppressWarnings({"unchecked"})
+  private E key(Node<E> w, int j) { return (E) w.keys[j]; }
+
+  /** Returns the number of keys of w that are smaller than e. */
+  private int lowerBound(Node<E> w, E e) {
+    int lo = 0, hi = w.n;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (comp.compare(key(w, mid), e) < 0) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+
+  /** Returns the number of keys of w that are not larger than e. */
+  private int upperBound(Node<E> w, E e) {
+    int lo = 0, hi = w.n;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (comp.compare(key(w, mid), e) <= 0) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+
+  /** Returns the leaf whose key range covers e. */
+  private Leaf<E> leafFor(E e) {
+    Node<E> w = root;
+    while (w instanceof Inner)
+      w = ((Inner<E>) w).children[upperBound(w, e)];
+    return (Leaf<E>) w;
+  }
+
+  /**
+   * Searches the tree for element e.
+   *
+   * @param e  the element for which you are searching
+   * @return the stored element equal to e, or null if there is none
+   */
+  public E findNode(E e) {
+    Leaf<E> leaf = leafFor(e);
+    int j = lowerBound(leaf, e);
+    return (j < leaf.n && comp.compare(key(leaf, j), e) == 0) ? key(leaf, j) : null;
+  }
+
+  /** Tests whether the tree contains an element equal to e. */
+  public boolean contains(E e) { return findNode(e) != null; }
+
+  /**
+   * Returns the smallest element larger than e (e need not be in the tree).
+   *
+   * @return the successor of e, or null if there is none
+   */
+  public E successor(E e) {
+    Leaf<E> leaf = leafFor(e);
+    int j = upperBound(leaf, e);
+    if (j < leaf.n) return key(leaf, j);
+    return (leaf.next == null) ? null : key(leaf.next, 0);   // larger keys start the next leaf
+  }
+
+  /**
+   * Returns the largest element smaller than e (e need not be in the tree).
+   *
+   * @return the predecessor of e, or null if there is none
+   */
+  public E predecessor(E e) {
+    Leaf<E> leaf = leafFor(e);
+    int j = lowerBound(leaf, e);
+    if (j > 0) return key(leaf, j - 1);
+    return (leaf.prev == null) ? null : key(leaf.prev, leaf.prev.n - 1);
+  }
+
+  /** Returns the smallest element, or null if the tree is empty. */
+  public E first() { return isEmpty() ? null : key(head, 0); }
+
+  /** Returns the largest element, or null if the tree is empty. */
+  public E last() { return isEmpty() ? null : key(tail, tail.n - 1); }
+
+  // update methods
+  /**
+   * Adds element e to the tree.
+   *
+   * @param e  the element to be added
+   * @return true if e was added, false if an equal element was already present
+   */
+  public boolean add(E e) {
+    if (!insert(root, e))
+      return false;
+    size++;
+    if (overflowing(root)) {                       // grow a new root above the old one
+      Inner<E> r = new Inner<>(fanout);
+      r.children[0] = root;
+      root = r;
+      split(r, 0);
+    }
+    return true;
+  }
+
+  /** Inserts e below w, splitting any child that overflows. */
+  private boolean insert(Node<E> w, E e) {
+    if (w instanceof Leaf) {
+      int j = lowerBound(w, e);
+      if (j < w.n && comp.compare(key(w, j), e) == 0)
+        return false;                              // already present
+      System.arraycopy(w.keys, j, w.keys, j + 1, w.n - j);
+      w.keys[j] = e;
+      w.n++;
+      return true;
+    }
+    Inner<E> in = (Inner<E>) w;
+    int j = upperBound(in, e);
+    if (!insert(in.children[j], e))
+      return false;
+    if (overflowing(in.children[j]))
+      split(in, j);
+    return true;
+  }
+
+  /** Tests whether w holds one key more than allowed. */
+  private boolean overflowing(Node<E> w) {
+    return (w instanceof Leaf) ? w.n > fanout : w.n > fanout - 1;
+  }
+
+  /** Splits the overflowing child j of parent into two half-full nodes. */
+  private void split(Inner<E> parent, int j) {
+    Node<E> left = parent.children[j];
+    Node<E> right;
+    Object separator;
+    if (left instanceof Leaf) {
+      Leaf<E> l = (Leaf<E>) left;
+      Leaf<E> r = new Leaf<>(fanout);
+      int half = l.n / 2;
+      r.n = l.n - half;
+      System.arraycopy(l.keys, half, r.keys, 0, r.n);
+      clear(l.keys, half, l.n);
+      l.n = half;
+      r.next = l.next;                             // link r after l
+      r.prev = l;
+      if (l.next == null) tail = r;
+      else l.next.prev = r;
+      l.next = r;
+      separator = r.keys[0];                       // smallest key of the right leaf
+      right = r;
+    } else {
+      Inner<E> l = (Inner<E>) left;
+      Inner<E> r = new Inner<>(fanout);
+      int mid = l.n / 2;
+      separator = l.keys[mid];                     // moves up into the parent
+      r.n = l.n - mid - 1;
+      System.arraycopy(l.keys, mid + 1, r.keys, 0, r.n);
+      System.arraycopy(l.children, mid + 1, r.children, 0, r.n + 1);
+      clear(l.keys, mid, l.n);
+      clear(l.children, mid + 1, l.n + 1);
+      l.n = mid;
+      right = r;
+    }
+    System.arraycopy(parent.keys, j, parent.keys, j + 1, parent.n - j);
+    System.arraycopy(parent.children, j + 1, parent.children, j + 2, parent.n - j);
+    parent.keys[j] = separator;
+    parent.children[j + 1] = right;
+    parent.n++;
+  }
+
+  /**
+   * Deletes element e from the tree.
+   *
+   * @param e  the element to be deleted
+   * @return the deleted element, or null if e was not in the tree
+   */
+  public E delete(E e) {
+    E removed = remove(root, e);
+    if (removed == null)
+      return null;
+    size--;
+    if (root instanceof Inner && root.n == 0)      // root with a single child shrinks
+      root = ((Inner<E>) root).children[0];
+    return removed;
+  }
+
+  /** Removes e below w, repairing any child that falls below half full. */
+  private E remove(Node<E> w, E e) {
+    if (w instanceof Leaf) {
+      int j = lowerBound(w, e);
+      if (j == w.n || comp.compare(key(w, j), e) != 0)
+        return null;                               // not present
+      E answer = key(w, j);
+      System.arraycopy(w.keys, j + 1, w.keys, j, w.n - j - 1);
+      w.keys[--w.n] = null;
+      return answer;
+    }
+    Inner<E> in = (Inner<E>) w;
+    int j = upperBound(in, e);
+    E answer = remove(in.children[j], e);
+    if (answer != null && underflowing(in.children[j]))
+      repair(in, (j > 0) ? j - 1 : j);
+    return answer;
+  }
+
+  /** Tests whether non-root node w holds fewer keys than allowed. */
+  private boolean underflowing(Node<E> w) {
+    return (w instanceof Leaf) ? w.n < fanout / 2 : w.n < (fanout + 1) / 2 - 1;
+  }
+
+  /**
+   * Repairs adjacent children j and j+1 of parent, one of which is underflowing,
+   * by merging them if they fit in one node and by evening out their keys otherwise.
+   */
+  private void repair(Inner<E> parent, int j) {
+    Node<E> a = parent.children[j];
+    Node<E> b = parent.children[j + 1];
+    if (a instanceof Leaf) {
+      Leaf<E> l = (Leaf<E>) a;
+      Leaf<E> r = (Leaf<E>) b;
+      if (l.n + r.n <= fanout) {                   // merge r into l
+        System.arraycopy(r.keys, 0, l.keys, l.n, r.n);
+        l.n += r.n;
+        l.next = r.next;
+        if (r.next == null) tail = l;
+        else r.next.prev = l;
+        removeChild(parent, j);
+        return;
+      }
+      int target = (l.n + r.n) / 2;                // new size of l
+      if (l.n > target) {                          // move the tail of l to r
+        int k = l.n - target;
+        System.arraycopy(r.keys, 0, r.keys, k, r.n);
+        System.arraycopy(l.keys, target, r.keys, 0, k);
+        clear(l.keys, target, l.n);
+        l.n -= k;
+        r.n += k;
+      } else {                                     // move the head of r to l
+        int k = target - l.n;
+        System.arraycopy(r.keys, 0, l.keys, l.n, k);
+        System.arraycopy(r.keys, k, r.keys, 0, r.n - k);
+        clear(r.keys, r.n - k, r.n);
+        l.n += k;
+        r.n -= k;
+      }
+      parent.keys[j] = r.keys[0];
+      return;
+    }
+    Inner<E> l = (Inner<E>) a;
+    Inner<E> r = (Inner<E>) b;
+    Object separator = parent.keys[j];
+    if (l.n + 1 + r.n <= fanout - 1) {             // merge separator and r into l
+      l.keys[l.n] = separator;
+      System.arraycopy(r.keys, 0, l.keys, l.n + 1, r.n);
+      System.arraycopy(r.children, 0, l.children, l.n + 1, r.n + 1);
+      l.n += 1 + r.n;
+      removeChild(parent, j);
+      return;
+    }
+    // rotate keys through the separator: the sequence l.keys, separator, r.keys
+    // is split so that l keeps target keys and the next key becomes the separator
+    int target = (l.n + r.n) / 2;
+    if (l.n > target) {                            // move the tail of l to r
+      int k = l.n - target;
+      System.arraycopy(r.keys, 0, r.keys, k, r.n);
+      System.arraycopy(r.children, 0, r.children, k, r.n + 1);
+      r.keys[k - 1] = separator;
+      System.arraycopy(l.keys, target + 1, r.keys, 0, k - 1);
+      System.arraycopy(l.children, target + 1, r.children, 0, k);
+      parent.keys[j] = l.keys[target];
+      clear(l.keys, target, l.n);
+      clear(l.children, target + 1, l.n + 1);
+      l.n = target;
+      r.n += k;
+    } else {                                       // move the head of r to l
+      int k = target - l.n;
+      l.keys[l.n] = separator;
+      System.arraycopy(r.keys, 0, l.keys, l.n + 1, k - 1);
+      System.arraycopy(r.children, 0, l.children, l.n + 1, k);
+      parent.keys[j] = r.keys[k - 1];
+      System.arraycopy(r.keys, k, r.keys, 0, r.n - k);
+      System.arraycopy(r.children, k, r.children, 0, r.n - k + 1);
+      clear(r.keys, r.n - k, r.n);
+      clear(r.children, r.n - k + 1, r.n + 1);
+      l.n = target;
+      r.n -= k;
+    }
+  }
+
+  /** Removes key j and child j+1 from parent, after child j+1 was merged into child j. */
+  private void removeChild(Inner<E> parent, int j) {
+    System.arraycopy(parent.keys, j + 1, parent.keys, j, parent.n - j - 1);
+    System.arraycopy(parent.children, j + 2, parent.children, j + 1, parent.n - j - 1);
+    parent.n--;
+    parent.keys[parent.n] = null;
+    parent.children[parent.n + 1] = null;
+  }
+
+  /** Clears slots [from, to) of array a, so removed entries can be collected. */
+  private static void clear(Object[] a, int from, int to) {
+    for (int j = from; j < to; j++)
+      a[j] = null;
+  }
+
+  //---------------- nested LeafIterator class ----------------
+  /** Walks the linked leaves from a starting key up to an optional inclusive bound. */
+  private class LeafIterator implements Iterator<E> {
+    private Leaf<E> leaf;
+    private int j;
+    private final E hi;                            // inclusive upper bound, or null for none
+
+    LeafIterator(Leaf<E> start, int index, E hi) {
+      leaf = start;
+      j = index;
+      this.hi = hi;
+      advance();
+    }
+
+    /** Moves to the next leaf if the current one is used up. */
+    private void advance() {
+      while (leaf != null && j == leaf.n) {
+        leaf = leaf.next;
+        j = 0;
+      }
+      if (leaf != null && hi != null && comp.compare(key(leaf, j), hi) > 0)
+        leaf = null;                               // past the upper bound
+    }
+
+    public boolean hasNext() { return leaf != null; }
+
+    public E next() throws NoSuchElementException {
+      if (leaf == null) throw new NoSuchElementException("No next element");
+      E answer = key(leaf, j++);
+      advance();
+      return answer;
+    }
+  } //----------- end of nested LeafIterator class -----------
+
+  /** Returns an iterator of the elements in increasing order. */
+  @Override
+  public Iterator<E> iterator() { return new LeafIterator(head, 0, null); }
+
+  /**
+   * Returns an iterator of the elements x with lo &lt;= x &lt;= hi, in increasing order.
+   * The scan descends once to find lo, then follows the leaf links.
+   *
+   * @param lo  the lower bound (inclusive)
+   * @param hi  the upper bound (inclusive)
+   * @return iterator of the elements in the range
+   */
+  public Iterator<E> range(E lo, E hi) {
+    if (comp.compare(lo, hi) > 0)
+      return new LeafIterator(null, 0, hi);        // empty
+    Leaf<E> leaf = leafFor(lo);
+    return new LeafIterator(leaf, lowerBound(leaf, lo), hi);
+  }
+}
@@ -22,6 +22,21 @@
  */
 package net.datastructures;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Concrete implementation of a binary tree using a node-based, linked structure.
  *
@@ -80,10 +95,30 @@ public class LinkedBinaryTree<E> extends AbstractBinaryTree<E> {
   /** The number of nodes in the binary tree */
   private int size = 0;              // number of nodes in the tree
 
+  /** Lock used by threads that share this tree (of its own methods, only morrisInorder acquires it) */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** Default size below which parallel operations process a subtree sequentially. */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 1024;
+
+  /** Subtrees estimated to be smaller than this are not split further. */
+  private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+  /** Parallel operations never split deeper than this, so degenerate trees stay safe. */
+  private static final int MAX_SPLIT_DEPTH = 48;
+
   // constructor
   /** Construts an empty binary tree. */
   public LinkedBinaryTree() { }      // constructs an empty binary tree
 
+  /**
+   * Returns the lock that threads sharing this tree should use to coordinate
+   * access: the read lock while reading, the write lock while modifying.
+   * The update methods of this class do not acquire it themselves.
+   * @return the read-write lock associated with this tree
+   */
+  public ReadWriteLock lock() { return lock; }
+
   // nonpublic utility
   /**
    * Verifies that a Position belongs to the appropriate class, and is
@@ -293,4 +328,261 @@ public class LinkedBinaryTree<E> extends AbstractBinaryTree<E> {
     node.setParent(node);                 // our convention for defunct node
     return temp;
   }
+
+  /**
+   * Visits the positions of the tree in inorder using Morris traversal, which
+   * needs only constant extra space. While the scan runs, the right link of
+   * each visited subtree's last node is temporarily pointed back at its inorder
+   * successor, so the visitor must neither navigate nor modify the tree. All
+   * links are restored before this method returns, even if the visitor throws.
+   *
+   * The scan holds the write lock of this tree for its duration, so threads
+   * that take lock() for their reads and writes cannot see the temporary links.
+   * A thread that already holds the write lock may call it.
+   *
+   * @param visitor  action applied to each position in turn
+   * @throws IllegalStateException if another thread holds the tree's lock
+   */
+  public void morrisInorder(Consumer<? super Position<E>> visitor)
+                          throws IllegalStateException {
+    if (!lock.writeLock().tryLock())
+      throw new IllegalStateException("Tree is in use by another thread");
+    try {
+      Node<E> current = root;
+      Throwable failure = null;                 // first exception thrown by the visitor
+      while (current != null) {
+        Node<E> visit = null;                   // position to report in this step
+        if (current.getLeft() == null) {
+          visit = current;
+          current = current.getRight();         // may follow a thread upward
+        } else {
+          Node<E> pred = current.getLeft();     // find inorder predecessor
+          while (pred.getRight() != null && pred.getRight() != current)
+            pred = pred.getRight();
+          if (pred.getRight() == null) {        // first arrival: thread and go left
+            pred.setRight(current);
+            current = current.getLeft();
+          } else {                              // second arrival: unthread and report
+            pred.setRight(null);
+            visit = current;
+            current = current.getRight();
+          }
+        }
+        if (visit != null && failure == null) {
+          try {
+            visitor.accept(visit);              // current has already moved on
+          } catch (Throwable t) {
+            failure = t;                        // stop visiting, but finish the walk to remove every thread
+          }
+        }
+      }
+      if (failure instanceof RuntimeException)
+        throw (RuntimeException) failure;
+      if (failure instanceof Error)
+        throw (Error) failure;
+      if (failure != null)                      // checked exception thrown without declaration
+        throw new RuntimeException(failure);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  //---------- support for parallel traversal and aggregation ----------
+
+  /**
+   * Sets the estimated subtree size below which parallel operations fall back
+   * to a sequential traversal.
+   * @param threshold  minimum number of nodes worth splitting into separate tasks
+   * @throws IllegalArgumentException if threshold is less than 1
+   */
+  public void setParallelThreshold(int threshold) throws IllegalArgumentException {
+    if (threshold < 1) throw new IllegalArgumentException("Threshold must be positive");
+    parallelThreshold = threshold;
+  }
+
+  /**
+   * Returns the number of nodes expected in the subtree rooted at n, which
+   * lies at the given depth. This default assumes a balanced tree; subclasses
+   * that know exact subtree sizes should override it.
+   * @param n      root of a subtree
+   * @param depth  depth of n in the tree
+   * @return estimated number of nodes in the subtree
+   */
+  protected int estimateSubtreeSize(Node<E> n, int depth) {
+    return (depth >= 31) ? 1 : Math.max(1, size() >> depth);
+  }
+
+  /**
+   * Performs a mutable reduction over all elements, splitting the work at subtree
+   * boundaries across the common ForkJoinPool. Subtrees estimated below the
+   * parallel threshold are processed sequentially. Partial results are combined
+   * in inorder, so the combiner needs to be associative but not commutative.
+   * The tree must not be modified while this runs.
+   *
+   * @param supplier     creates a new, empty result container
+   * @param accumulator  folds one element into a container
+   * @param combiner     merges the second container into the first and returns the result
+   * @return the combined result over all elements
+   */
+  public <A> A parallelCollect(Supplier<A> supplier, BiConsumer<A, ? super E> accumulator,
+                               BinaryOperator<A> combiner) {
+    if (root == null) return supplier.get();
+    return ForkJoinPool.commonPool().invoke(
+             new SubtreeTask<A>(root, 0, supplier, accumulator, combiner));
+  }
+
+  /**
+   * Reduces all elements in parallel: each element is mapped, and the mapped
+   * values are combined with an associative operator.
+   *
+   * @param identity  identity value of the operator
+   * @param mapper    maps an element to a value
+   * @param op        associative operator combining two values
+   * @return the reduction over all elements (identity if the tree is empty)
+   */
+  public <R> R parallelReduce(R identity, Function<? super E, ? extends R> mapper,
+                              BinaryOperator<R> op) {
+    Box<R> result = parallelCollect(() -> new Box<R>(identity),
+                                    (box, e) -> box.value = op.apply(box.value, mapper.apply(e)),
+                                    (a, b) -> { a.value = op.apply(a.value, b.value); return a; });
+    return result.value;
+  }
+
+  /** Mutable holder for a reduction value. */
+  private static class Box<R> {
+    R value;
+    Box(R v) { value = v; }
+  }
+
+  //---------------- nested SubtreeTask class ----------------
+  /** Fork/join task that aggregates the elements of one subtree. */
+  @SuppressWarnings({"serial"})
+  private class SubtreeTask<A> extends RecursiveTask<A> {
+    private final Node<E> subtree;
+    private final int depth;
+    private final Supplier<A> supplier;
+    private final BiConsumer<A, ? super E> accumulator;
+    private final BinaryOperator<A> combiner;
+
+    SubtreeTask(Node<E> n, int d, Supplier<A> s, BiConsumer<A, ? super E> acc,
+                BinaryOperator<A> c) {
+      subtree = n;
+      depth = d;
+      supplier = s;
+      accumulator = acc;
+      combiner = c;
+    }
+
+    @Override
+    protected A compute() {
+      if (depth >= MAX_SPLIT_DEPTH || estimateSubtreeSize(subtree, depth) <= parallelThreshold)
+        return sequential();
+      SubtreeTask<A> leftTask = null;
+      if (subtree.getLeft() != null) {
+        leftTask = new SubtreeTask<>(subtree.getLeft(), depth + 1, supplier, accumulator, combiner);
+        leftTask.fork();                          // left subtree runs asynchronously
+      }
+      A middle = supplier.get();
+      accumulator.accept(middle, subtree.getElement());
+      A rightResult = null;
+      if (subtree.getRight() != null)             // right subtree runs in this thread
+        rightResult = new SubtreeTask<>(subtree.getRight(), depth + 1, supplier, accumulator,
+                                        combiner).compute();
+      A result = (leftTask == null) ? middle : combiner.apply(leftTask.join(), middle);
+      return (rightResult == null) ? result : combiner.apply(result, rightResult);
+    }
+
+    /** Folds the subtree in inorder, using an explicit stack instead of recursion. */
+    private A sequential() {
+      A result = supplier.get();
+      Deque<Node<E>> path = new ArrayDeque<>();
+      Node<E> walk = subtree;
+      while (walk != null || !path.isEmpty()) {
+        while (walk != null) {
+          path.push(walk);
+          walk = walk.getLeft();
+        }
+        walk = path.pop();
+        accumulator.accept(result, walk.getElement());
+        walk = walk.getRight();
+      }
+      return result;
+    }
+  } //----------- end of nested SubtreeTask class -----------
+
+  /**
+   * Returns a stream of the positions of the tree, backed by a spliterator that
+   * splits at subtree boundaries, so that positionStream().parallel() divides
+   * the tree among threads. Positions are reported in no particular order.
+   * The tree must not be modified while the stream is in use.
+   * @return stream of the tree's positions
+   */
+  public Stream<Position<E>> positionStream() {
+    return StreamSupport.stream(positionSpliterator(), false);
+  }
+
+  /**
+   * Returns a spliterator over the positions of the tree (see positionStream).
+   * @return spliterator of the tree's positions
+   */
+  public Spliterator<Position<E>> positionSpliterator() {
+    return new SubtreeSpliterator(root, size());
+  }
+
+  //---------------- nested SubtreeSpliterator class ----------------
+  /**
+   * Spliterator covering a set of whole subtrees and single nodes. A split
+   * hands off a whole pending subtree, or one child subtree of the last one.
+   */
+  private class SubtreeSpliterator implements Spliterator<Position<E>> {
+    private final Deque<Node<E>> subtrees = new ArrayDeque<>();   // whole subtrees still to report
+    private final Deque<Node<E>> singles = new ArrayDeque<>();    // nodes to report without subtrees
+    private long estimate;                                        // estimated remaining positions
+
+    SubtreeSpliterator(Node<E> n, long est) {
+      if (n != null)
+        subtrees.push(n);
+      estimate = est;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Position<E>> action) {
+      Node<E> next;
+      if (!singles.isEmpty())
+        next = singles.pop();
+      else if (!subtrees.isEmpty()) {
+        next = subtrees.pop();                     // report its root, keep its children
+        if (next.getRight() != null) subtrees.push(next.getRight());
+        if (next.getLeft() != null) subtrees.push(next.getLeft());
+      } else
+        return false;
+      if (estimate > 1) estimate--;
+      action.accept(next);
+      return true;
+    }
+
+    @Override
+    public Spliterator<Position<E>> trySplit() {
+      if (estimate <= parallelThreshold)
+        return null;                               // too small: process sequentially
+      if (subtrees.size() == 1) {                  // open up the only subtree
+        Node<E> n = subtrees.pop();
+        singles.push(n);
+        if (n.getRight() != null) subtrees.push(n.getRight());
+        if (n.getLeft() != null) subtrees.push(n.getLeft());
+      }
+      if (subtrees.isEmpty())
+        return null;                               // only single nodes are left
+      Node<E> handOff = subtrees.pollLast();       // the shallowest, hence largest, subtree
+      long half = estimate / 2;
+      estimate -= half;
+      return new SubtreeSpliterator(handOff, half);
+    }
+
+    @Override
+    public long estimateSize() { return estimate; }
+
+    @Override
+    public int characteristics() { return NONNULL; }
+  } //----------- end of nested SubtreeSpliterator class -----------
 } //----------- end of LinkedBinaryTree class -----------
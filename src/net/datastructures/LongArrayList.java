@@ -0,0 +1,278 @@
+/*
+ * Copyright 2014, Michael T. Goodrich, Roberto Tamassia, Michael H. Goldwasser
+ *
+ * Developed for use with the book:
+ *
+ *    Data Structures and Algorithms in Java, Sixth Edition
+ *    Michael T. Goodrich, Roberto Tamassia, and Michael H. Goldwasser
+ *    John Wiley & Sons, 2014
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.datastructures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Realization of a list of primitive long values by means of a dynamic array.
+ * It implements {@link LongList}, the index-based operations of {@link List},
+ * but stores the values unboxed, so each element takes 8 bytes rather than a
+ * reference plus a Long object.
+ *
+ * @see ArrayList
+ */
+public class LongArrayList implements LongList {
+  // instance variables
+  /** Default array capacity. */
+  public static final int CAPACITY=16;     // default array capacity
+
+  /** Largest array length that all virtual machines can allocate. */
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  /** Array used for storage of list elements. */
+  private long[] data;
+
+  /** Current number of elements in the list. */
+  private int size = 0;
+
+  /** Policy used when the array is full. */
+  private ArrayList.GrowthPolicy growth = ArrayList.GrowthPolicy.DOUBLING;
+
+  // constructors
+  /** Creates a list with default initial capacity. */
+  public LongArrayList() { this(CAPACITY); }
+
+  /** Creates a list with given initial capacity. */
+  public LongArrayList(int capacity) { data = new long[capacity]; }
+
+  /** Creates a list that uses the given array, whose first size cells are the elements. */
+  private LongArrayList(long[] array, int size) {
+    data = array;
+    this.size = size;
+  }
+
+  /**
+   * Returns a list whose elements are the values of the given array, without
+   * copying: the list and the array share storage until the list grows.
+   * @param  array   the array to use
+   * @return a list of array.length elements
+   */
+  public static LongArrayList wrap(long[] array) { return new LongArrayList(array, array.length); }
+
+  /**
+   * Returns a list holding a copy of the given values.
+   * @param  values   the values to copy
+   * @return a new list of the values
+   */
+  public static LongArrayList of(long... values) { return wrap(values.clone()); }
+
+  // public methods
+  /**
+   * Returns the number of elements in the list.
+   * @return number of elements in the list
+   */
+  public int size() { return size; }
+
+  /**
+   * Tests whether the list is empty.
+   * @return true if the list is empty, false otherwise
+   */
+  public boolean isEmpty() { return size == 0; }
+
+  /**
+   * Returns (but does not remove) the element at index i.
+   * @param  i   the index of the element to return
+   * @return the element at the specified index
+   * @throws IndexOutOfBoundsException if the index is negative or greater than size()-1
+   */
+  public long get(int i) throws IndexOutOfBoundsException {
+    checkIndex(i, size);
+    return data[i];
+  }
+
+  /**
+   * Replaces the element at the specified index, and returns the element previously stored.
+   * @param  i   the index of the element to replace
+   * @param  e   the new element to be stored
+   * @return the previously stored element
+   * @throws IndexOutOfBoundsException if the index is negative or greater than size()-1
+   */
+  public long set(int i, long e) throws IndexOutOfBoundsException {
+    checkIndex(i, size);
+    long temp = data[i];
+    data[i] = e;
+    return temp;
+  }
+
+  /**
+   * Appends the given element to the end of the list.
+   * @param  e   the new element to be stored
+   */
+  public void add(long e) {
+    if (size == data.length)
+      grow(size + 1);
+    data[size++] = e;
+  }
+
+  /**
+   * Inserts the given element at the specified index of the list, shifting all
+   * subsequent elements in the list one position further to make room.
+   * @param  i   the index at which the new element should be stored
+   * @param  e   the new element to be stored
+   * @throws IndexOutOfBoundsException if the index is negative or greater than size()
+   */
+  public void add(int i, long e) throws IndexOutOfBoundsException {
+    checkIndex(i, size + 1);
+    if (size == data.length)
+      grow(size + 1);
+    System.arraycopy(data, i, data, i+1, size-i);
+    data[i] = e;
+    size++;
+  }
+
+  /**
+   * Appends all given values to the end of the list.
+   * @param  values   the values to append
+   */
+  public void addAll(long[] values) {
+    if (values.length > MAX_CAPACITY - size)   // size + values.length would overflow
+      throw new OutOfMemoryError("Required array size too large");
+    ensureCapacity(size + values.length);
+    System.arraycopy(values, 0, data, size, values.length);
+    size += values.length;
+  }
+
+  /**
+   * Removes and returns the element at the given index, shifting all subsequent
+   * elements in the list one position closer to the front.
+   * @param  i   the index of the element to be removed
+   * @return the element that had be stored at the given index
+   * @throws IndexOutOfBoundsException if the index is negative or greater than size()-1
+   */
+  public long remove(int i) throws IndexOutOfBoundsException {
+    checkIndex(i, size);
+    long temp = data[i];
+    System.arraycopy(data, i+1, data, i, size-i-1);
+    size--;
+    return temp;
+  }
+
+  /** Removes all elements, keeping the current capacity. */
+  public void clear() { size = 0; }
+
+  /** Sorts the elements into increasing order. */
+  public void sort() { Arrays.sort(data, 0, size); }
+
+  /**
+   * Searches the sorted list for the given value.
+   * @param  key   the value to search for
+   * @return the index of key, if present; otherwise (-(insertion point) - 1)
+   */
+  public int binarySearch(long key) { return Arrays.binarySearch(data, 0, size, key); }
+
+  /**
+   * Returns a new array holding the elements of the list.
+   * @return an array of size() elements
+   */
+  public long[] toArray() { return Arrays.copyOf(data, size); }
+
+  /**
+   * Returns the array that stores the elements, trimmed to size() first. The
+   * array is copied only if it has spare capacity; after that, the list and
+   * the array share storage until the list grows.
+   * @return the backing array, of length size()
+   */
+  public long[] array() {
+    trimToSize();
+    return data;
+  }
+
+  // capacity management
+  /**
+   * Sets the policy that decides how much the internal array grows when it is full.
+   * @param  policy   the growth policy, e.g. ArrayList.GrowthPolicy.ONE_AND_A_HALF
+   */
+  public void setGrowthPolicy(ArrayList.GrowthPolicy policy) {
+    if (policy == null) throw new NullPointerException("policy");
+    growth = policy;
+  }
+
+  /**
+   * Grows the internal array, if needed, so the list can hold minCapacity
+   * elements without further resizing.
+   * @param  minCapacity   the desired minimum capacity
+   */
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > data.length)
+      grow(minCapacity);
+  }
+
+  /** Shrinks the internal array to the current number of elements. */
+  public void trimToSize() {
+    if (size < data.length)
+      data = Arrays.copyOf(data, size);
+  }
+
+  // utility methods
+  /** Checks whether the given index is in the range [0, n-1]. */
+  protected void checkIndex(int i, int n) throws IndexOutOfBoundsException {
+    if (i < 0 || i >= n)
+      throw new IndexOutOfBoundsException("Illegal index: " + i);
+  }
+
+  /** Grows the internal array, by the growth policy, to hold at least minCapacity elements. */
+  private void grow(int minCapacity) {
+    data = Arrays.copyOf(data, growth.grow(data.length, minCapacity));
+  }
+
+  //---------------- nested LongIterator class ----------------
+  /** Iterator that reports the elements as primitive longs, without boxing. */
+  private class LongIterator implements PrimitiveIterator.OfLong {
+    /** Index of the next element to report. */
+    private int j = 0;
+
+    public boolean hasNext() { return j < size; }
+
+    public long nextLong() throws NoSuchElementException {
+      if (j >= size) throw new NoSuchElementException("No next element");
+      return data[j++];
+    }
+  } //------------ end of nested LongIterator class ------------
+
+  /**
+   * Returns an iterator of the elements stored in the list. Its nextLong
+   * method reports them without boxing.
+   * @return iterator of the list's elements
+   */
+  @Override
+  public PrimitiveIterator.OfLong iterator() { return new LongIterator(); }
+
+  /**
+   * Produces a string representation of the contents of the list.
+   * This exists for debugging purposes only.
+   *
+   * @return textual representation of the list
+   */
+  public String toString() {
+    StringBuilder sb = new StringBuilder("(");
+    for (int j = 0; j < size; j++) {
+      if (j > 0) sb.append(", ");
+      sb.append(data[j]);
+    }
+    sb.append(")");
+    return sb.toString();
+  }
+}
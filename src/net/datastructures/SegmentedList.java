@@ -0,0 +1,288 @@
+/*
+ * Copyright 2014, Michael T. Goodrich, Roberto Tamassia, Michael H. Goldwasser
+ *
+ * Developed for use with the book:
+ *
+ *    Data Structures and Algorithms in Java, Sixth Edition
+ *    Michael T. Goodrich, Roberto Tamassia, and Michael H. Goldwasser
+ *    John Wiley & Sons, 2014
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.datastructures;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Realization of a list by means of fixed-size chunks. A directory array holds
+ * the chunks, so index i lives at offset (i mod chunk size) of chunk
+ * (i / chunk size), both computed by a shift and a mask.
+ *
+ * Growing the list allocates one more chunk and never copies the elements
+ * already stored; only the directory (one reference per chunk) is ever
+ * reallocated. This keeps very large lists free of huge array allocations.
+ * Insertions and removals in the middle shift the later elements, chunk by
+ * chunk, as in an array list.
+ *
+ * @see ArrayList
+ */
+public class SegmentedList<E> implements List<E> {
+  // instance variables
+  /** Default number of elements per chunk, as a power of two. */
+  public static final int DEFAULT_CHUNK_BITS = 12;    // 4096 elements per chunk
+
+  /** log2 of the number of elements per chunk. */
+  private final int bits;
+
+  /** Number of elements per chunk. */
+  private final int chunkSize;
+
+  /** Mask selecting the offset of an index within its chunk. */
+  private final int mask;
+
+  /** Directory of chunks; chunks[c] holds indices [c*chunkSize, (c+1)*chunkSize). */
+  private Object[][] chunks = new Object[16][];
+
+  /** Number of chunks allocated. */
+  private int chunkCount = 0;
+
+  /** Current number of elements in the list. */
+  private int size = 0;
+
+  /** Number of structural modifications (adds and removals), for fail-fast iteration. */
+  private int modCount = 0;
+
+  // constructors
+  /** Creates an empty list with the default chunk size. */
+  public SegmentedList() { this(DEFAULT_CHUNK_BITS); }
+
+  /**
+   * Creates an empty list whose chunks hold 2^chunkBits elements.
+   * @param  chunkBits   log2 of the chunk size, between 0 and 30
+   */
+  public SegmentedList(int chunkBits) {
+    if (chunkBits < 0 || chunkBits > 30)
+      throw new IllegalArgumentException("Illegal chunk bits: " + chunkBits);
+    bits = chunkBits;
+    chunkSize = 1 << chunkBits;
+    mask = chunkSize - 1;
+  }
+
+  // public methods
+  /**
+   * Returns the number of elements in the list.
+   * @return number of elements in the list
+   */
+  public int size() { return size; }
+
+  /**
+   * Tests whether the list is empty.
+   * @return true if the list is empty, false otherwise
+   */
+  public boolean isEmpty() { return size == 0; }
+
+  /**
+   * Returns (but does not remove) the element at index i.
+   * @param  i   the index of the element to return
+   * @return the element at the specified index
+   * @throws IndexOutOfBoundsException if the index is negative or greater than size()-1
+   */
+  @SuppressWarnings({"unchecked"})
+  public E get(int i) throws IndexOutOfBoundsException {
+    checkIndex(i, size);
+    return (E) chunks[i >>> bits][i & mask];
+  }
+
+  /**
+   * Replaces the element at the specified index, and returns the element previously stored.
+   * @param  i   the index of the element to replace
+   * @param  e   the new element to be stored
+   * @return the previously stored element
+   * @throws IndexOutOfBoundsException if the index is negative or greater than size()-1
+   */
+  @SuppressWarnings({"unchecked"})
+  public E set(int i, E e) throws IndexOutOfBoundsException {
+    checkIndex(i, size);
+    Object[] chunk = chunks[i >>> bits];
+    E temp = (E) chunk[i & mask];
+    chunk[i & mask] = e;
+    return temp;
+  }
+
+  /**
+   * Appends the given element to the end of the list.
+   * @param  e   the new element to be stored
+   */
+  public void add(E e) {
+    if (size == Integer.MAX_VALUE)
+      throw new OutOfMemoryError("List is full");
+    if ((size >>> bits) == chunkCount)
+      addChunk();
+    chunks[size >>> bits][size & mask] = e;
+    size++;
+    modCount++;
+  }
+
+  /**
+   * Inserts the given element at the specified index of the list, shifting all
+   * subsequent elements in the list one position further to make room.
+   * Each later chunk passes its last element on to the next chunk.
+   * @param  i   the index at which the new element should be stored
+   * @param  e   the new element to be stored
+   * @throws IndexOutOfBoundsException if the index is negative or greater than size()
+   */
+  public void add(int i, E e) throws IndexOutOfBoundsException {
+    checkIndex(i, size + 1);
+    if (i == size) {
+      add(e);
+      return;
+    }
+    if ((size >>> bits) == chunkCount)
+      addChunk();
+    Object carry = e;                          // element entering the current chunk
+    int c = i >>> bits;
+    int offset = i & mask;
+    while (true) {
+      Object[] chunk = chunks[c];
+      int used = Math.min(chunkSize, size - (c << bits));   // elements in chunk c
+      if (used < chunkSize) {                  // room here: the shift ends in this chunk
+        System.arraycopy(chunk, offset, chunk, offset+1, used-offset);
+        chunk[offset] = carry;
+        break;
+      }
+      Object out = chunk[chunkSize-1];         // pushed into the next chunk
+      System.arraycopy(chunk, offset, chunk, offset+1, chunkSize-1-offset);
+      chunk[offset] = carry;
+      carry = out;
+      c++;
+      offset = 0;
+    }
+    size++;
+    modCount++;
+  }
+
+  /**
+   * Removes and returns the element at the given index, shifting all subsequent
+   * elements in the list one position closer to the front.
+   * Each later chunk passes its first element back to the previous chunk.
+   * @param  i   the index of the element to be removed
+   * @return the element that had be stored at the given index
+   * @throws IndexOutOfBoundsException if the index is negative or greater than size()-1
+   */
+  @SuppressWarnings({"unchecked"})
+  public E remove(int i) throws IndexOutOfBoundsException {
+    checkIndex(i, size);
+    int c = i >>> bits;
+    int offset = i & mask;
+    E temp = (E) chunks[c][offset];
+    while (true) {
+      Object[] chunk = chunks[c];
+      int used = Math.min(chunkSize, size - (c << bits));   // elements in chunk c
+      System.arraycopy(chunk, offset+1, chunk, offset, used-offset-1);
+      if (used < chunkSize || ((c + 1) << bits) >= size) {
+        chunk[used-1] = null;                  // help garbage collection
+        break;
+      }
+      chunk[chunkSize-1] = chunks[c+1][0];     // pull in the next chunk's first element
+      c++;
+      offset = 0;
+    }
+    size--;
+    modCount++;
+    return temp;
+  }
+
+  /** Releases chunks that hold no elements. */
+  public void trimToSize() {
+    int needed = (size + mask) >>> bits;
+    for (int c = needed; c < chunkCount; c++)
+      chunks[c] = null;
+    chunkCount = needed;
+  }
+
+  // utility methods
+  /** Checks whether the given index is in the range [0, n-1]. */
+  protected void checkIndex(int i, int n) throws IndexOutOfBoundsException {
+    if (i < 0 || i >= n)
+      throw new IndexOutOfBoundsException("Illegal index: " + i);
+  }
+
+  /** Allocates one more chunk, growing only the directory if it is full. */
+  private void addChunk() {
+    if (chunkCount == chunks.length)
+      chunks = Arrays.copyOf(chunks, 2 * chunks.length);
+    if (chunks[chunkCount] == null)
+      chunks[chunkCount] = new Object[chunkSize];
+    chunkCount++;
+  }
+
+  //---------------- nested ChunkIterator class ----------------
+  /** Iterator that walks each chunk in turn, without index arithmetic per element. */
+  private class ChunkIterator implements Iterator<E> {
+    private int j = 0;                         // index of the next element to report
+    private Object[] chunk;                    // chunk holding index j, once entered
+    private boolean removable = false;         // can remove be called at this time?
+    private int expectedModCount = modCount;   // list changes not made by this iterator are errors
+
+    public boolean hasNext() { return j < size; }
+
+    @SuppressWarnings({"unchecked"})
+    public E next() throws NoSuchElementException {
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      if (j >= size) throw new NoSuchElementException("No next element");
+      if ((j & mask) == 0)
+        chunk = chunks[j >>> bits];            // entering a new chunk
+      removable = true;
+      return (E) chunk[j++ & mask];
+    }
+
+    public void remove() throws IllegalStateException {
+      if (!removable) throw new IllegalStateException("nothing to remove");
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      SegmentedList.this.remove(j-1);          // that was the last one returned
+      j--;                                     // next element has shifted one cell to the left
+      if (j < size)
+        chunk = chunks[j >>> bits];
+      removable = false;
+      expectedModCount = modCount;
+    }
+  } //------------ end of nested ChunkIterator class ------------
+
+  /**
+   * Returns an iterator of the elements stored in the list.
+   * @return iterator of the list's elements
+   */
+  @Override
+  public Iterator<E> iterator() { return new ChunkIterator(); }
+
+  /**
+   * Produces a string representation of the contents of the list.
+   * This exists for debugging purposes only.
+   *
+   * @return textual representation of the list
+   */
+  public String toString() {
+    StringBuilder sb = new StringBuilder("(");
+    int j = 0;
+    for (E e : this) {
+      if (j++ > 0) sb.append(", ");
+      sb.append(e);
+    }
+    sb.append(")");
+    return sb.toString();
+  }
+}